@@ -0,0 +1,59 @@
+package frc.robot.commands.drivetrain;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the input squaring ArcadeDriveCmd runs every loop against the polar form it replaced.
+ */
+@State(Scope.Thread)
+public class ArcadeDriveCmdBenchmark {
+
+    private static final int inputCount = 1024;
+
+    private final double[] drives = new double[inputCount];
+    private final double[] strafes = new double[inputCount];
+    private final double[] rots = new double[inputCount];
+    private int inputIndex = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for(int i = 0; i < inputCount; i++) {
+            drives[i] = random.nextDouble() * 2.0 - 1.0;
+            strafes[i] = random.nextDouble() * 2.0 - 1.0;
+            rots[i] = random.nextDouble() * 2.0 - 1.0;
+        }
+    }
+
+    private int nextInput() {
+        inputIndex = (inputIndex + 1) & (inputCount - 1);
+        return inputIndex;
+    }
+
+    @Benchmark
+    public void polar(Blackhole blackhole) {
+        int i = nextInput();
+        double theta = Math.atan2(drives[i], strafes[i]);
+        double r = Math.pow(Math.hypot(drives[i], strafes[i]), 2.0);
+
+        blackhole.consume(r * Math.sin(theta));
+        blackhole.consume(r * Math.cos(theta));
+        blackhole.consume(Math.copySign(Math.pow(rots[i], 2.0), rots[i]));
+    }
+
+    @Benchmark
+    public void squaredInputScale(Blackhole blackhole) {
+        int i = nextInput();
+        double scale = ArcadeDriveCmd.getSquaredInputScale(drives[i], strafes[i]);
+
+        blackhole.consume(drives[i] * scale);
+        blackhole.consume(strafes[i] * scale);
+        blackhole.consume(Math.copySign(rots[i] * rots[i], rots[i]));
+    }
+}
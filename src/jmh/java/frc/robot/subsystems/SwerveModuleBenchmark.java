@@ -0,0 +1,66 @@
+package frc.robot.subsystems;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Benchmarks the steer math SwerveModule.setDesiredState() runs for each module every loop.
+ */
+@State(Scope.Thread)
+public class SwerveModuleBenchmark {
+
+    private static final int inputCount = 1024;
+
+    private final double[] targetAnglesRad = new double[inputCount];
+    private final double[] currentAnglesRad = new double[inputCount];
+    private int inputIndex = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for(int i = 0; i < inputCount; i++) {
+            targetAnglesRad[i] = (random.nextDouble() * 2.0 - 1.0) * Math.PI;
+            // The steer encoder is continuous, so the current angle can be several turns from zero.
+            currentAnglesRad[i] = (random.nextDouble() * 2.0 - 1.0) * 8.0 * Math.PI;
+        }
+    }
+
+    private int nextInput() {
+        inputIndex = (inputIndex + 1) & (inputCount - 1);
+        return inputIndex;
+    }
+
+    @Benchmark
+    public double calculateAdjustedAngle() {
+        int i = nextInput();
+        return SwerveModule.calculateAdjustedAngle(targetAnglesRad[i], currentAnglesRad[i]);
+    }
+
+    @Benchmark
+    public double primitiveOptimize() {
+        int i = nextInput();
+        double targetAngleRad = SwerveModule.optimizeAngle(targetAnglesRad[i], currentAnglesRad[i]);
+        double speedMetersPerSec = SwerveModule.optimizeSpeed(1.0, targetAnglesRad[i], currentAnglesRad[i]);
+
+        return SwerveModule.calculateAdjustedAngle(targetAngleRad, currentAnglesRad[i]) + speedMetersPerSec;
+    }
+
+    @Benchmark
+    public double wpilibOptimize() {
+        int i = nextInput();
+        Rotation2d currentAngle = new Rotation2d(currentAnglesRad[i]);
+        SwerveModuleState state = new SwerveModuleState(1.0, new Rotation2d(targetAnglesRad[i]));
+
+        state.optimize(currentAngle);
+        state.cosineScale(currentAngle);
+
+        return SwerveModule.calculateAdjustedAngle(state.angle.getRadians(), currentAnglesRad[i]) + state.speedMetersPerSecond;
+    }
+}
@@ -0,0 +1,52 @@
+package frc.robot.util.led;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.util.led.LEDParent.TranslateDirection;
+
+/**
+ * Benchmarks the buffer composition LEDStripArray runs for each strip every loop, and the translation
+ * scrolling animations run each step.
+ */
+@State(Scope.Thread)
+public class LEDStripBenchmark {
+
+    @Param({"78", "128"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean isReversed;
+
+    private LEDStrip ledStrip;
+
+    private int[] frame;
+
+    private final int[] voidColor = {PackedColor.pack(255, 0, 0)};
+
+    @Setup
+    public void setup() {
+        ledStrip = new LEDStrip(length, 0.5, isReversed);
+        frame = new int[length];
+        for(int i = 0; i < length; i++) {
+            ledStrip.setColor(Color.fromHSV((i * 180) / length, 255, 255), i);
+            ledStrip.setValue((double)i / length, i);
+        }
+    }
+
+    @Benchmark
+    public int[] renderLEDs() {
+        ledStrip.renderLEDs(frame, 0);
+        return frame;
+    }
+
+    @Benchmark
+    public int translatePackedColors() {
+        ledStrip.translatePackedColors(TranslateDirection.FORWARD, voidColor);
+        return ledStrip.getPackedColor(0);
+    }
+}
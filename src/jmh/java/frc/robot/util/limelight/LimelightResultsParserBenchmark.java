@@ -0,0 +1,88 @@
+package frc.robot.util.limelight;
+
+import java.util.EnumSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import frc.robot.util.limelight.LimelightHelpers.LimelightResults;
+import frc.robot.util.limelight.LimelightResultsParser.ResultType;
+
+/**
+ * Compares LimelightResultsParser against the ObjectMapper binding used by LimelightHelpers.getLatestResults().
+ */
+@State(Scope.Thread)
+public class LimelightResultsParserBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final EnumSet<ResultType> fiducialsOnly = EnumSet.of(ResultType.FIDUCIAL);
+    private final EnumSet<ResultType> noTargets = EnumSet.noneOf(ResultType.class);
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        // A busy frame: eight tags, four detections and two classifications.
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"Results\":{\"pID\":0,\"tl\":11.2,\"cl\":20.5,\"ts\":123456.7,\"ts_rio\":98.765,\"v\":1,");
+        builder.append("\"botpose\":[1.1,2.2,0.0,0.0,0.0,45.0],");
+        builder.append("\"botpose_wpired\":[15.4,6.1,0.0,0.0,0.0,-135.0],");
+        builder.append("\"botpose_wpiblue\":[1.1,2.2,0.0,0.0,0.0,45.0],");
+        builder.append("\"botpose_tagcount\":8,\"botpose_span\":2.5,\"botpose_avgdist\":3.1,\"botpose_avgarea\":0.4,");
+        builder.append("\"t6c_rs\":[0.3,0.0,0.5,0.0,15.0,0.0],");
+
+        builder.append("\"Fiducial\":[");
+        for(int i = 0; i < 8; i++) {
+            if(i > 0) builder.append(',');
+            builder.append("{\"fID\":").append(i + 1).append(",\"fam\":\"36H11C\",")
+                .append("\"t6c_ts\":[0.1,0.2,-2.5,1.0,2.0,3.0],\"t6r_fs\":[1.1,2.2,0.0,0.0,0.0,45.0],")
+                .append("\"t6r_ts\":[0.2,0.1,-2.6,1.0,2.0,3.0],\"t6t_cs\":[-0.1,-0.2,2.5,-1.0,-2.0,-3.0],")
+                .append("\"t6t_rs\":[-0.2,-0.1,2.6,-1.0,-2.0,-3.0],")
+                .append("\"ta\":0.41,\"tx\":-3.2,\"txp\":140.5,\"ty\":1.7,\"typ\":110.25,\"ts\":0.9,")
+                .append("\"pts\":[[1.0,2.0],[3.0,4.0],[5.0,6.0],[7.0,8.0]]}");
+        }
+        builder.append("],");
+
+        builder.append("\"Detector\":[");
+        for(int i = 0; i < 4; i++) {
+            if(i > 0) builder.append(',');
+            builder.append("{\"class\":\"algae\",\"classID\":").append(i)
+                .append(",\"conf\":0.87,\"ta\":0.05,\"tx\":4.5,\"txp\":200.0,\"ty\":-2.1,\"typ\":90.0,")
+                .append("\"pts\":[[1.0,2.0],[3.0,4.0],[5.0,6.0],[7.0,8.0]]}");
+        }
+        builder.append("],");
+
+        builder.append("\"Classifier\":[");
+        for(int i = 0; i < 2; i++) {
+            if(i > 0) builder.append(',');
+            builder.append("{\"class\":\"coral\",\"classID\":").append(i)
+                .append(",\"conf\":0.66,\"zone\":0,\"tx\":0.0,\"txp\":0.0,\"ty\":0.0,\"typ\":0.0}");
+        }
+        builder.append("],");
+
+        builder.append("\"Retro\":[],\"Barcode\":[]}}");
+
+        json = builder.toString();
+    }
+
+    @Benchmark
+    public LimelightResults objectMapper() throws Exception {
+        return mapper.readValue(json, LimelightResults.class);
+    }
+
+    @Benchmark
+    public LimelightResults streamingFiducialsOnly() {
+        return LimelightResultsParser.parse(json, fiducialsOnly);
+    }
+
+    @Benchmark
+    public LimelightResults streamingNoTargets() {
+        return LimelightResultsParser.parse(json, noTargets);
+    }
+}
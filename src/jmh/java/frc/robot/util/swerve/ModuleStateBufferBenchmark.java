@@ -0,0 +1,79 @@
+package frc.robot.util.swerve;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * Compares the kinematics SwerveSys.drive() runs every loop against the WPILib path it replaced.
+ */
+@State(Scope.Thread)
+public class ModuleStateBufferBenchmark {
+
+    private static final int inputCount = 1024;
+
+    private final double[] vxMetersPerSec = new double[inputCount];
+    private final double[] vyMetersPerSec = new double[inputCount];
+    private final double[] omegaRadPerSec = new double[inputCount];
+    private int inputIndex = 0;
+
+    private final ModuleStateBuffer moduleStates = new ModuleStateBuffer(DriveConstants.moduleTranslations);
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for(int i = 0; i < inputCount; i++) {
+            vxMetersPerSec[i] = (random.nextDouble() * 2.0 - 1.0) * DriveConstants.maxDriveSpeedMetersPerSec;
+            vyMetersPerSec[i] = (random.nextDouble() * 2.0 - 1.0) * DriveConstants.maxDriveSpeedMetersPerSec;
+            omegaRadPerSec[i] = (random.nextDouble() * 2.0 - 1.0) * DriveConstants.maxTurnSpeedRadPerSec;
+        }
+    }
+
+    private int nextInput() {
+        inputIndex = (inputIndex + 1) & (inputCount - 1);
+        return inputIndex;
+    }
+
+    @Benchmark
+    public void wpilibKinematics(Blackhole blackhole) {
+        int i = nextInput();
+        ChassisSpeeds speeds = ChassisSpeeds.discretize(new ChassisSpeeds(vxMetersPerSec[i], vyMetersPerSec[i], omegaRadPerSec[i]), 0.02);
+        SwerveModuleState[] states = DriveConstants.kinematics.toSwerveModuleStates(speeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(states, DriveConstants.maxModuleSpeedMetersPerSec);
+        blackhole.consume(states);
+    }
+
+    @Benchmark
+    public void wpilibDiscretize(Blackhole blackhole) {
+        int i = nextInput();
+        blackhole.consume(ChassisSpeeds.discretize(new ChassisSpeeds(vxMetersPerSec[i], vyMetersPerSec[i], omegaRadPerSec[i]), 0.02));
+    }
+
+    @Benchmark
+    public void moduleStateBuffer(Blackhole blackhole) {
+        int i = nextInput();
+        moduleStates.setChassisSpeeds(vxMetersPerSec[i], vyMetersPerSec[i], omegaRadPerSec[i], 0.02);
+        moduleStates.desaturate(DriveConstants.maxModuleSpeedMetersPerSec);
+        for(int module = 0; module < moduleStates.getModuleCount(); module++) {
+            blackhole.consume(moduleStates.getSpeedMetersPerSec(module));
+            blackhole.consume(moduleStates.getAngleRad(module));
+        }
+    }
+
+    @Benchmark
+    public void moduleStateBufferDesaturate(Blackhole blackhole) {
+        int i = nextInput();
+        moduleStates.setChassisSpeeds(vxMetersPerSec[i], vyMetersPerSec[i], omegaRadPerSec[i]);
+        moduleStates.desaturate(DriveConstants.maxModuleSpeedMetersPerSec);
+        blackhole.consume(moduleStates.getSpeedMetersPerSec(0));
+    }
+}
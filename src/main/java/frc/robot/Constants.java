@@ -3,7 +3,10 @@ package frc.robot;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.util.Units;
@@ -99,16 +102,20 @@ public class Constants {
         // mature sure to measure from the center of each wheel
         public static final double wheelBase = Units.inchesToMeters(23.75);
 
+        /**
+         * The locations of the modules relative to the center of the robot. The order is FL, FR, BL, BR.
+         */
+        public static final Translation2d[] moduleTranslations = new Translation2d[] {
+            new Translation2d(trackWidth / 2.0, wheelBase / 2.0),  // front left
+            new Translation2d(trackWidth / 2.0, -wheelBase / 2.0), // front right
+            new Translation2d(-trackWidth / 2.0, wheelBase / 2.0), // back left
+            new Translation2d(-trackWidth / 2.0, -wheelBase / 2.0) // back right
+        };
+
         /**
          * The SwerveDriveKinematics used for control and odometry.
          */
-        public static final SwerveDriveKinematics kinematics = 
-            new SwerveDriveKinematics(
-                new Translation2d(trackWidth / 2.0, wheelBase / 2.0),  // front left
-                new Translation2d(trackWidth / 2.0, -wheelBase / 2.0), // front right
-                new Translation2d(-trackWidth / 2.0, wheelBase / 2.0), // back left
-                new Translation2d(-trackWidth / 2.0, -wheelBase / 2.0) // back right
-            );
+        public static final SwerveDriveKinematics kinematics = new SwerveDriveKinematics(moduleTranslations);
 
         /**
          * The gear reduction from the drive motor to the wheel.
@@ -146,6 +153,28 @@ public class Constants {
          */
         public static final double maxTurnSpeedRadPerSec = 3.0 * Math.PI;
 
+        /**
+         * The rate the odometry thread samples the module encoders and gyro.
+         * This runs independently of the 20 ms scheduler loop.
+         */
+        public static final double odometryFrequencyHz = 250.0;
+
+        /**
+         * How far back the odometry history reaches, in seconds. Vision frames captured earlier than this are ignored.
+         */
+        public static final double poseHistorySec = 1.5;
+
+        /**
+         * The standard deviation of the odometry x and y in meters, and heading in radians.
+         */
+        public static final double odometryXYStdDevMeters = 0.05;
+        public static final double odometryThetaStdDevRad = Units.degreesToRadians(0.25);
+
+        /**
+         * The rate the Pigeon2 and CANcoders publish signals that are not used for odometry.
+         */
+        public static final double statusSignalFrequencyHz = 50.0;
+
         // Set line up the swerve modules and set these values.
 
         // The bolt heads should be pointing to the right. These values are subtracted from the CANCoder reading,
@@ -174,6 +203,10 @@ public class Constants {
         public static final SimpleMotorFeedforward driveFF =
             new SimpleMotorFeedforward(ksVolts, kvVoltSecsPerMeter, kaVoltSecsPerMeterSq);
 
+        // Moments of inertia for the simulated modules, seen at the wheel. The drive includes a quarter of the robot mass.
+        public static final double simDriveMoiKgMetersSq = 0.04;
+        public static final double simSteerMoiKgMetersSq = 0.004;
+
     }
 
     public static final class AutoConstants {
@@ -197,6 +230,10 @@ public class Constants {
 
         public static final double autoAimToleranceDeg = 0.2;
 
+        // The turn rate at which the wheels of the open loop drive just overcome static friction, with a 10% margin.
+        public static final double autoAimkSRadPerSec =
+            1.1 * DriveConstants.ksVolts / 12.0 * DriveConstants.freeMetersPerSecond / DriveConstants.moduleTranslations[0].getNorm();
+
         public static final double autoAimTurnSpeedRadPerSec = 2.0 * Math.PI;
         public static final double autoAumTurnAccelRadPerSecSq = 3.0 * Math.PI;
 
@@ -272,14 +309,86 @@ public class Constants {
         public static final double partyModeHueIncrement = 5;
         public static final double partyModeTranslationTimeSec = 0.05;
 
+        // LEDEffectEngine layers, drawn from lowest to highest.
+        public static final int baseLayer = 0;
+        public static final int liftLayer = 1;
+        public static final int layerCount = 2;
+
+        // The lift progress bar is full at the level 4 position. Lift positions go negative as it rises.
+        public static final Color liftProgressColor = new Color(255, 255, 255);
+        public static final double liftFullPositionRevs = -25.0;
+
         public static final double brightnessPercentage = 0.5;
+
+        // LEDStripArray renders frames on its render thread at this rate, and only pushes frames where something changed.
+        public static final double maxFrameRateHz = 25.0;
+    }
+
+    public class TelemetryConstants {
+        // Dashboard topics are published at these periods. Zero publishes every loop.
+        public static final double drivePublishPeriodSec = 0.0;
+        public static final double calibrationPublishPeriodSec = 0.5;
+
+        // LoopProfiler reports any cycle longer than loopBudgetSec and publishes the p50, p99 and max
+        // of the last profilerWindowSize samples of each section every profilerPublishPeriodSec.
+        public static final double loopBudgetSec = 0.02;
+        public static final int profilerWindowSize = 250;
+        public static final double profilerPublishPeriodSec = 1.0;
     }
 
     public class VisionConstants {
         public static final String frontLimelightName = "limelight";
         public static final String backLimelightName = "limelight";
 
+        // Single-tag frames with a smaller average tag area are rejected.
         public static final double targetAreaPercentThreshold = 0.15;
+
+        // Default standard deviations of vision measurements in the pose estimator.
+        public static final double xyStdDevMeters = 0.35;
+        public static final double thetaStdDevRad = Units.degreesToRadians(30.0);
+
+        // Measurement-quality model used by LimelightPoseEstimator. Standard deviations are the coefficient
+        // times the square of the average tag distance, divided by the tag count. LogReplay can be used to tune these.
+        public static final double xyStdDevCoefficient = 0.08;
+        public static final double thetaStdDevCoefficient = Units.degreesToRadians(5.0);
+        // The heading from a single tag is not trusted.
+        public static final double singleTagThetaStdDevRad = 1e6;
+        // Close tags are not trusted more than this, so a single frame cannot snap the estimate to itself.
+        public static final double minXYStdDevMeters = 0.05;
+        public static final double minThetaStdDevRad = Units.degreesToRadians(2.0);
+
+        // Single-tag frames are rejected if the tag is ambiguous, too far away or jumps too far from the current estimate.
+        public static final double maxSingleTagAmbiguity = 0.2;
+        public static final double maxSingleTagDistanceMeters = 4.0;
+        public static final double maxSingleTagPoseJumpMeters = 1.0;
+        // A jump is accepted once this many single-tag frames in a row agree on it, each within the spread of the last.
+        public static final int singleTagJumpConfirmFrameCount = 5;
+        public static final double maxSingleTagJumpSpreadMeters = 0.25;
+
+        // Frames placing the robot further than this outside the field are rejected.
+        public static final double fieldBorderMarginMeters = 0.5;
+
+        // Limelight REST requests such as snapshots. Requests beyond the queue capacity are dropped.
+        public static final int httpThreadCount = 1;
+        public static final int httpQueueCapacity = 4;
+        public static final int httpConnectTimeoutMs = 250;
+        public static final int httpReadTimeoutMs = 500;
+
+        // LimelightSim stands in for each Limelight in simulation. Extra cameras can be added to load-test the vision pipeline.
+        public static final int simExtraCameraCount = 0;
+        public static final Transform3d simRobotToCamera =
+            new Transform3d(new Translation3d(0.3, 0.0, 0.25), new Rotation3d(0.0, Units.degreesToRadians(-15.0), 0.0));
+        public static final double simFrameRateHz = 30.0;
+        public static final double simPipelineLatencyMs = 20.0;
+        public static final double simCaptureLatencyMs = 15.0;
+        // Limelight 3 field of view.
+        public static final double simHorizontalFovDeg = 62.5;
+        public static final double simVerticalFovDeg = 48.9;
+        public static final double simMaxTagDistanceMeters = 6.0;
+        // Pose noise standard deviations, scaled like the measurement-quality model by the square of the distance over the tag count.
+        public static final double simXYNoiseCoefficient = 0.01;
+        public static final double simThetaNoiseCoefficient = Units.degreesToRadians(1.0);
+        public static final double simTxNoiseStdDevDeg = 0.1;
     }
 
     public class FieldConstants {
@@ -290,5 +399,8 @@ public class Constants {
         public static final Translation2d redReefPose = new Translation2d(13, 4);
 
         public static final double speakerTargetHeightMeters = 2.03;
+
+        public static final double fieldLengthMeters = 17.548;
+        public static final double fieldWidthMeters = 8.052;
     }
 }
\ No newline at end of file
@@ -1,10 +1,26 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.replay.LogReplay;
+import frc.robot.sim.AutoSimRunner;
 
 public final class Main {
     public static void main(String... args) {
 
+        // Replays a recorded log instead of running the robot, see LogReplay.
+        String replayLog = System.getenv("REPLAY_LOG");
+        if(replayLog != null) {
+            LogReplay.run(replayLog);
+            return;
+        }
+
+        // Runs the autos headless and faster than real time instead of running the robot, see AutoSimRunner.
+        String autoSim = System.getenv("AUTO_SIM");
+        if(autoSim != null) {
+            AutoSimRunner.run(autoSim);
+            return;
+        }
+
         RobotBase.startRobot(Robot::new);
 
     }
@@ -2,9 +2,12 @@ package frc.robot;
 
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class Robot extends TimedRobot {
     
@@ -14,15 +17,26 @@ public class Robot extends TimedRobot {
 
     @Override
     public void robotInit() {
+        // Starts recording to the on-robot log. Writes happen on DataLogManager's own thread.
+        DataLogManager.start();
+        DriverStation.startDataLog(DataLogManager.getLog());
 
         robotContainer = new RobotContainer();
+
+        LoopProfiler.getInstance().install();
+    }
+
+    public RobotContainer getRobotContainer() {
+        return robotContainer;
     }
 
     @Override
     public void robotPeriodic() {
+        LoopProfiler.getInstance().startCycle();
+
         CommandScheduler.getInstance().run();
 
-        robotContainer.updateInterface();
+        robotContainer.logSchedulerTime(LoopProfiler.getInstance().endCycle());
     }
 
     @Override
@@ -1,5 +1,7 @@
 package frc.robot;
 
+import java.util.Arrays;
+
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 
@@ -13,12 +15,14 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import frc.robot.Constants.ButtonPanelConstants;
 import frc.robot.Constants.ControllerConstants;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.VisionConstants;
 import frc.robot.commands.drivetrain.AlgeaoutrunCmd;
 import frc.robot.commands.drivetrain.AlgeaoutrunbwdCmd;
 import frc.robot.commands.drivetrain.ArcadeDriveCmd;
@@ -41,17 +45,34 @@ import frc.robot.subsystems.ConveyorSys;
 import frc.robot.subsystems.EndEffectorSys;
 import frc.robot.subsystems.IntakeSys;
 import frc.robot.subsystems.LiftSys;
+import frc.robot.subsystems.LightsSys;
+import frc.robot.subsystems.LoggingSys;
 import frc.robot.subsystems.SwerveSys;
+import frc.robot.subsystems.TelemetrySys;
+import frc.robot.subsystems.VisionSys;
 import frc.robot.commands.drivetrain.PointCmd;
+import frc.robot.util.limelight.LimelightSim;
 
 public class RobotContainer {
     
     // Initialize subsystems.
     private final SwerveSys swerveSys = new SwerveSys();
     private final LiftSys liftSys = new LiftSys();
+    // The lift progress bar is drawn on the LED render thread, so it reads the position cached by LiftSys.periodic().
+    private final LightsSys lightsSys = new LightsSys(liftSys::getCachedPositionRevs);
     private final EndEffectorSys endEffectorSys = new EndEffectorSys();
     private final ConveyorSys conveyorSys = new ConveyorSys();
     private final IntakeSys intakeSys = new IntakeSys();
+    private final VisionSys visionSys = new VisionSys(swerveSys);
+    // Stand in for the Limelights in simulation. Empty on the robot.
+    private final LimelightSim[] limelightSims =
+        RobotBase.isSimulation()
+        ? Arrays.stream(VisionSys.getLimelightNames())
+            .map(name -> new LimelightSim(name, VisionConstants.simRobotToCamera, swerveSys::getSimulatedPose))
+            .toArray(LimelightSim[]::new)
+        : new LimelightSim[0];
+    private final TelemetrySys telemetrySys = new TelemetrySys(swerveSys);
+    private final LoggingSys loggingSys = new LoggingSys(swerveSys, liftSys, intakeSys);
 
     //Initialize joysticks.
     public final static CommandXboxController driverController = new CommandXboxController(ControllerConstants.driverGamepadPort);
@@ -185,37 +206,15 @@ public class RobotContainer {
         driverController.rightBumper().whileTrue(new PointCmd(swerveSys));
     }
 
+    public SwerveSys getSwerveSys() {
+        return swerveSys;
+    }
+
     public Command getAutonomousCommand() {
         return autoSelector.getSelected();
-    } 
-
-    // For uniformity, any information sent to Shuffleboard/SmartDashboard should go here.
-    public void updateInterface() {
-        
-        SmartDashboard.putNumber("heading degrees", swerveSys.getHeading().getDegrees());
-        SmartDashboard.putNumber("speed m/s", swerveSys.getAverageDriveVelocityMetersPerSec());
-
-        SmartDashboard.putNumber("pose x meters", swerveSys.getPose().getX());
-        SmartDashboard.putNumber("pose y meters", swerveSys.getPose().getY());
-
-        SmartDashboard.putNumber("blue pose x meters", swerveSys.getBlueSidePose().getX());
-
-        SmartDashboard.putNumber("FL angle degrees", swerveSys.getModuleStates()[0].angle.getDegrees());
-        SmartDashboard.putNumber("FR angle degrees", swerveSys.getModuleStates()[1].angle.getDegrees());
-        SmartDashboard.putNumber("BL angle degrees", swerveSys.getModuleStates()[2].angle.getDegrees());
-        SmartDashboard.putNumber("BR angle degrees", swerveSys.getModuleStates()[3].angle.getDegrees());
-
-        SmartDashboard.putNumber("FL raw CANCoder degrees", swerveSys.getCanCoderAngles()[0].getDegrees());
-        SmartDashboard.putNumber("FR raw CANCoder degrees", swerveSys.getCanCoderAngles()[1].getDegrees());
-        SmartDashboard.putNumber("BL raw CANCoder degrees", swerveSys.getCanCoderAngles()[2].getDegrees());
-        SmartDashboard.putNumber("BR raw CANCoder degrees", swerveSys.getCanCoderAngles()[3].getDegrees());
-
-        SmartDashboard.putNumber("FL offset CANCoder degrees", swerveSys.getCanCoderAngles()[0].getDegrees() - DriveConstants.frontLeftModOffset.getDegrees());
-        SmartDashboard.putNumber("FR offset CANCoder degrees", swerveSys.getCanCoderAngles()[1].getDegrees() - DriveConstants.frontRightModOffset.getDegrees());
-        SmartDashboard.putNumber("BL offset CANCoder degrees", swerveSys.getCanCoderAngles()[2].getDegrees() - DriveConstants.backLeftModOffset.getDegrees());
-        SmartDashboard.putNumber("BR offset CANCoder degrees", swerveSys.getCanCoderAngles()[3].getDegrees() - DriveConstants.backRightModOffset.getDegrees());
-
-        SmartDashboard.putNumber("drive voltage", swerveSys.getAverageDriveVoltage());
+    }
 
-    }   
-}
+    public void logSchedulerTime(double schedulerTimeSec) {
+        loggingSys.logSchedulerTime(schedulerTimeSec);
+    }
+}
\ No newline at end of file
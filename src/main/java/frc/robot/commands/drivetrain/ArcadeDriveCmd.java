@@ -72,13 +72,12 @@ public class ArcadeDriveCmd extends Command {
 
         if(squareInputs) {
             // Squaring inputs while preserving commanded lateral direction
-            double theta = Math.atan2(drive, strafe);
-            double r = Math.pow(Math.hypot(drive, strafe), 2.0);
+            double scale = getSquaredInputScale(drive, strafe);
 
-            drive = r * Math.sin(theta);
-            strafe = r * Math.cos(theta);
+            drive *= scale;
+            strafe *= scale;
 
-            rot = Math.copySign(Math.pow(rot, 2.0), rot);
+            rot = Math.copySign(rot * rot, rot);
         }
 
         swerveSys.drive(
@@ -89,6 +88,21 @@ public class ArcadeDriveCmd extends Command {
         );
     }
     
+    /**
+     * Returns the factor to multiply the lateral inputs by to square their magnitude while preserving their direction.
+     * 
+     * <p>This is the same as converting the inputs to polar coordinates, squaring r and converting back,
+     * without the atan2(), sin() and cos() calls.
+     * 
+     * @param drive The commanded forward/backward lateral motion.
+     * @param strafe The commanded left/right lateral motion.
+     * 
+     * @return The factor to scale both inputs by.
+     */
+    static double getSquaredInputScale(double drive, double strafe) {
+        return Math.hypot(drive, strafe);
+    }
+    
     // Called once the command ends or is interrupted.
     @Override
     public void end(boolean interrupted) {}
@@ -1,43 +1,189 @@
 package frc.robot.commands.drivetrain;
 
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.VisionConstants;
 import frc.robot.subsystems.SwerveSys;
-import frc.robot.util.limelight.LimelightHelpers;
+import frc.robot.util.limelight.LimelightReader;
 
 public class PointCmd extends Command{
     private final SwerveSys swerveSys;
-    private final double kP = 0.1; // Proportional constant for centering
-    private final double tolerance = 0.01; // Degress of error tolerance
 
-    public PointCmd(SwerveSys swerveSys) {
+    private final LimelightReader limelight;
+
+    private final DoubleSupplier timeOfFlightSecSupplier;
+
+    private final ProfiledPIDController aimController;
+
+    // The capture time of the last frame used, so each frame is only turned into a target once.
+    private double lastCaptureTimestampSec;
+
+    private boolean hasTarget;
+
+    // The field-relative direction of the target, seen from where the robot was when the frame was captured.
+    private Rotation2d targetBearing = new Rotation2d();
+
+    // The field position of the target. Only known when the Limelight reports the distance to an AprilTag.
+    private Translation2d targetTranslation = null;
+
+    private boolean isAimed;
+
+    // Read by PathPlanner through the supplier set in initialize(). Only replaced when the target heading changes.
+    private Optional<Rotation2d> rotationTargetOverride = Optional.empty();
+
+    /**
+     * Creates a new PointCmd.
+     *
+     * <p>PointCmd turns the drivebase to face the target the Limelight sees. Each new frame is turned into a field-relative
+     * target using the heading the robot had when the frame was captured, so the latency of the camera does not cause
+     * overshoot. Between frames the robot aims with the pose estimate, which updates much faster than the camera.
+     *
+     * <p>When the Limelight sees an AprilTag, the field position of the target is known and the aim leads it by the
+     * velocity of the robot over the time of flight of the game piece.
+     *
+     * <p>It overrides the driver's rotation control as well as PathPlanner's rotation target, so the robot can still
+     * be driven while aiming. The command finishes once the robot is aimed.
+     *
+     * @param limelightName The name of the Limelight to aim with.
+     * @param timeOfFlightSecSupplier The time of flight of the game piece in seconds, or zero to not lead the target.
+     * @param swerveSys The SwerveSys to modify.
+     */
+    public PointCmd(String limelightName, DoubleSupplier timeOfFlightSecSupplier, SwerveSys swerveSys) {
         this.swerveSys = swerveSys;
-        addRequirements(swerveSys);
+
+        this.timeOfFlightSecSupplier = timeOfFlightSecSupplier;
+
+        limelight = new LimelightReader(limelightName);
+
+        aimController = new ProfiledPIDController(
+                AutoConstants.autoAimkP, 0.0, AutoConstants.autoAimkD,
+                new Constraints(
+                    AutoConstants.autoAimTurnSpeedRadPerSec,
+                    AutoConstants.autoAumTurnAccelRadPerSecSq));
+
+        aimController.enableContinuousInput(-Math.PI, Math.PI);
+    }
+
+    /**
+     * Creates a new PointCmd that aims with the front Limelight and does not lead the target.
+     *
+     * @param swerveSys The SwerveSys to modify.
+     */
+    public PointCmd(SwerveSys swerveSys) {
+        this(VisionConstants.frontLimelightName, () -> 0.0, swerveSys);
     }
-    
+
+    @Override
+    public void initialize() {
+        lastCaptureTimestampSec = Double.NaN;
+        hasTarget = false;
+        targetTranslation = null;
+        isAimed = false;
+
+        rotationTargetOverride = Optional.empty();
+        PPHolonomicDriveController.setRotationTargetOverride(() -> rotationTargetOverride);
+
+        // Starts the profile from where the robot is and how fast it is already turning.
+        aimController.reset(swerveSys.getHeading().getRadians(), swerveSys.getChassisSpeeds().omegaRadiansPerSecond);
+    }
+
     @Override
     public void execute() {
-        // Get the horizontal offset (tx) from the limelight
-        double tx = LimelightHelpers.getTX("limelight");
+        updateTarget();
+
+        if(!hasTarget) {
+            swerveSys.setOmegaOverrideRadPerSec(Optional.empty());
+            return;
+        }
+
+        Rotation2d targetHeading;
+        if(targetTranslation != null) {
+            double timeOfFlightSec = timeOfFlightSecSupplier.getAsDouble();
+            Translation2d extrapolatedTranslation =
+                swerveSys.getPose().getTranslation().plus(swerveSys.getFieldRelativeVelocity().times(timeOfFlightSec));
+
+            targetHeading = targetTranslation.minus(extrapolatedTranslation).getAngle();
+        }
+        else {
+            targetHeading = targetBearing;
+        }
+
+        if(rotationTargetOverride.isEmpty() || !rotationTargetOverride.get().equals(targetHeading)) {
+            rotationTargetOverride = Optional.of(targetHeading);
+        }
 
-        // Calculate the rotational speed to center the robot
-        double rotationSpeed = kP * tx;
+        double headingRad = swerveSys.getHeading().getRadians();
+        double headingErrorRad = MathUtil.angleModulus(targetHeading.getRadians() - headingRad);
 
-        // Limit the rotation speed to avoid excessive movement
-        rotationSpeed = Math.max(-7.5, Math.min(7.5, rotationSpeed));
+        isAimed = Math.abs(Math.toDegrees(headingErrorRad)) <= AutoConstants.autoAimToleranceDeg;
+
+        if(!isAimed) {
+            // The velocity of the profile is fed forward so the PID only corrects the error from it. The static friction
+            // term keeps small corrections from being too slow to turn the wheels.
+            double aimRadPerSec =
+                aimController.calculate(headingRad, targetHeading.getRadians())
+                + aimController.getSetpoint().velocity
+                + Math.copySign(AutoConstants.autoAimkSRadPerSec, headingErrorRad);
+            swerveSys.setOmegaOverrideRadPerSec(Optional.of(aimRadPerSec));
+        }
+        else {
+            swerveSys.setOmegaOverrideRadPerSec(Optional.of(0.0));
+        }
+    }
+
+    /**
+     * Updates the field-relative target if the Limelight has captured a new frame with a target in it.
+     */
+    private void updateTarget() {
+        double captureTimestampSec = limelight.getCaptureTimestampSec();
+        if(!limelight.getTV() || captureTimestampSec == lastCaptureTimestampSec) return;
+
+        lastCaptureTimestampSec = captureTimestampSec;
+
+        Pose2d capturePose = swerveSys.getPoseAt(captureTimestampSec).orElse(swerveSys.getPose());
+
+        // tx is positive when the target is to the right, which is a clockwise turn.
+        targetBearing = capturePose.getRotation().minus(Rotation2d.fromDegrees(limelight.getTX()));
+
+        double targetDistanceMeters = limelight.getTargetDistanceMeters();
+        targetTranslation =
+            targetDistanceMeters > 0.0
+            ? capturePose.getTranslation().plus(new Translation2d(targetDistanceMeters, targetBearing))
+            : null;
+
+        hasTarget = true;
+    }
 
-        // Command the swerve drive to rotate
-        swerveSys.drive(0, 0, -rotationSpeed, false);
+    /**
+     * Returns whether the robot is within AutoConstants.autoAimToleranceDeg of the target heading.
+     *
+     * @return True if the robot is aimed.
+     */
+    public boolean isAimed() {
+        return isAimed;
     }
 
     @Override
     public boolean isFinished() {
         // Check if the target is within the tolerance
-        return Math.abs(LimelightHelpers.getTX("limelight")) < tolerance;
+        return isAimed;
     }
 
     @Override
     public void end(boolean interrupted) {
-        // Stop the robot when the command ends
-        swerveSys.drive(0, 0, 0, false);
+        // Gives rotation back to the driver and PathPlanner when the command ends
+        swerveSys.setOmegaOverrideRadPerSec(Optional.empty());
+        PPHolonomicDriveController.setRotationTargetOverride(() -> Optional.empty());
     }
 }
@@ -4,6 +4,7 @@
 
 package frc.robot.commands.lights;
 
+import java.util.Optional;
 import java.util.function.BooleanSupplier;
 
 import edu.wpi.first.wpilibj.DriverStation;
@@ -11,6 +12,8 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants.LightsConstants;
 import frc.robot.subsystems.LightsSys;
+import frc.robot.util.led.LEDEffect;
+import frc.robot.util.led.LEDEffects;
 
 public class LightsDefaultCmd extends Command {
 
@@ -18,7 +21,10 @@ public class LightsDefaultCmd extends Command {
 
 	private final BooleanSupplier hasNoteSupplier;
 
-	private boolean prevHasNote = true;
+	// Created once, so setting the same effect every loop does not draw the lights again.
+	private final LEDEffect redAllianceEffect = LEDEffects.solid(LightsConstants.redAllianceColor);
+	private final LEDEffect blueAllianceEffect = LEDEffects.solid(LightsConstants.blueAllianceColor);
+	private final LEDEffect noAllianceEffect = LEDEffects.solid(LightsConstants.noAllianceColor);
 
 	/** Creates a new LightsDefaultCmd. */
 	public LightsDefaultCmd(LightsSys lightsSys, BooleanSupplier hasNoteSupplier) {
@@ -37,24 +43,16 @@ public class LightsDefaultCmd extends Command {
 	// Called every time the scheduler runs while the command is scheduled.
 	@Override
 	public void execute() {
-		/*if(!prevHasNote && hasNoteSupplier.getAsBoolean()) {
-			lightsSys.setColor(LightsConstants.hasNoteColor);
+		Optional<Alliance> alliance = DriverStation.getAlliance();
+		if(alliance.isPresent() && alliance.get() == Alliance.Red) {
+			lightsSys.setEffect(LightsConstants.baseLayer, redAllianceEffect);
+		}
+		else if(alliance.isPresent() && alliance.get() == Alliance.Blue) {
+			lightsSys.setEffect(LightsConstants.baseLayer, blueAllianceEffect);
+		}
+		else {
+			lightsSys.setEffect(LightsConstants.baseLayer, noAllianceEffect);
 		}
-		else if(DriverStation.getAlliance().isPresent() && prevHasNote && !hasNoteSupplier.getAsBoolean()) {*/
-			if(DriverStation.getAlliance().get() == Alliance.Red) {
-				lightsSys.setColor(LightsConstants.redAllianceColor);
-			}
-			else if(DriverStation.getAlliance().get() == Alliance.Blue) {
-				lightsSys.setColor(LightsConstants.blueAllianceColor);
-			}
-			else {
-				lightsSys.setColor(LightsConstants.noAllianceColor);
-			}
-		// }
-
-		lightsSys.setValue(1.0);
-
-		// prevHasNote = hasNoteSupplier.getAsBoolean();
 	}
 
 	// Called once the command ends or is interrupted.
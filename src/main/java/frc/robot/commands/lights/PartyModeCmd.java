@@ -4,69 +4,41 @@
 
 package frc.robot.commands.lights;
 
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants.LightsConstants;
 import frc.robot.subsystems.LightsSys;
-import frc.robot.util.led.LEDParent.TranslateDirection;
-import frc.robot.util.led.LEDStrip;
+import frc.robot.util.led.LEDEffect;
+import frc.robot.util.led.LEDEffects;
 
 public class PartyModeCmd extends Command {
 
 	private final LightsSys lightsSys;
 
-	private final Timer timer;
+	// Moves forward one LED every partyModeTranslationTimeSec, each LED partyModeHueIncrement from the last.
+	private final LEDEffect partyModeEffect =
+		LEDEffects.rainbow(LightsConstants.partyModeHueIncrement, 1.0 / LightsConstants.partyModeTranslationTimeSec);
 
-	private int startingHue = 0;
-
-	/** Creates a new LightsDefaultCmd. */
+	/** Creates a new PartyModeCmd. */
 	public PartyModeCmd(LightsSys lightsSys) {
 		this.lightsSys = lightsSys;
 
-		timer = new Timer();
-
 		addRequirements(lightsSys);
 	}
 
 	// Called when the command is initially scheduled.
 	@Override
 	public void initialize() {
-		for(LEDStrip strip : new LEDStrip[] {lightsSys.exampleStrip1, lightsSys.exampleStrip2, lightsSys.exampleStrip3}) {
-			strip.setValue(1.0);
-			int hue = startingHue;
-			for(int i = 0; i < strip.getLength(); i++) {
-				strip.setColor(Color.fromHSV(hue, 255, 255), i);
-				startingHue += LightsConstants.partyModeHueIncrement;
-				if(startingHue > 180) {
-					startingHue -= 180;
-				}
-			}
-		}
-		timer.start();
+		// LightsSys animates the effect, so this command does nothing each loop.
+		lightsSys.setEffect(LightsConstants.baseLayer, partyModeEffect);
 	}
 
 	// Called every time the scheduler runs while the command is scheduled.
 	@Override
-	public void execute() {
-		if(timer.advanceIfElapsed(LightsConstants.partyModeTranslationTimeSec)) {
-			timer.restart();
-			startingHue += LightsConstants.partyModeHueIncrement;
-			if(startingHue > 180) {
-				startingHue -= 180;
-			}
-			
-			for(LEDStrip strip : new LEDStrip[] {lightsSys.exampleStrip1, lightsSys.exampleStrip2, lightsSys.exampleStrip3}) {
-				strip.translateColors(TranslateDirection.FORWARD, Color.fromHSV(startingHue, 255, 255));
-			}
-		}
-	}
+	public void execute() {}
 
 	// Called once the command ends or is interrupted.
 	@Override
-	public void end(boolean interrupted) {
-		timer.stop();
-	}
+	public void end(boolean interrupted) {}
 
 	// Returns true when the command should end.
 	@Override
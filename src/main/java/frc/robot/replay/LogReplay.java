@@ -0,0 +1,326 @@
+package frc.robot.replay;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.SwerveSys;
+import frc.robot.subsystems.VisionSys;
+import frc.robot.subsystems.io.GyroIOReplay;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.subsystems.io.SwerveModuleIOReplay;
+import frc.robot.util.limelight.LimelightIO;
+import frc.robot.util.limelight.LimelightIO.LimelightInputs;
+import frc.robot.util.limelight.LimelightIOReplay;
+
+/**
+ * Feeds a recorded match log back through SwerveSys pose estimation and LimelightPoseEstimator.
+ * 
+ * <p>On the robot, SwerveSys records every odometry sample and every pose reset, and LimelightIONetworkTables records
+ * every Limelight frame it receives. LogReplay reads those records back, orders them by their recorded time and
+ * hands them to a SwerveSys and VisionSys built on replay IO, one at a time on a single thread. Nothing reads the
+ * clock, so the same log and the same constants always produce the same poses, as fast as the CPU allows.
+ * 
+ * <p>Run it from the desktop simulator with the REPLAY_LOG environment variable set to a .wpilog file.
+ * The estimated pose after every odometry sample is written next to the log as a CSV file.
+ */
+public final class LogReplay {
+
+    /** The DataLog entry of odometry samples, as written by packOdometrySample(). */
+    public static final String odometryEntry = "/Replay/Odometry";
+
+    /** The DataLog entry of pose resets, as written by packPoseReset(). */
+    public static final String resetEntry = "/Replay/Reset";
+
+    /** The DataLog entry prefix of Limelight frames. The Limelight name is appended. */
+    public static final String visionEntryPrefix = "/Replay/Vision/";
+
+    /** The length of an odometry sample: timestamp, gyro yaw, then drive position and steer angle of each module. */
+    public static final int odometrySampleLength = 2 + 2 * 4;
+
+    /** The length of a pose reset: the odometry sample at the reset, then x, y and heading of the pose. */
+    public static final int poseResetLength = odometrySampleLength + 3;
+
+    // The length of a vision frame before the botpose array: timestamp.
+    private static final int visionFrameHeaderLength = 1;
+
+    private LogReplay() {}
+
+    /**
+     * The kinds of records in the log.
+     */
+    private enum RecordType {
+        ODOMETRY,
+        RESET,
+        VISION
+    }
+
+    /**
+     * A record read from the log.
+     */
+    private static class Record {
+        private final RecordType type;
+        private final String limelightName;
+        private final long timestampMicros;
+        private final double[] values;
+
+        /**
+         * @param type The kind of record.
+         * @param limelightName The Limelight the frame came from, or null if the record is not a vision frame.
+         * @param timestampMicros The recorded time of the record in microseconds.
+         * @param values The recorded values.
+         */
+        private Record(RecordType type, String limelightName, long timestampMicros, double[] values) {
+            this.type = type;
+            this.limelightName = limelightName;
+            this.timestampMicros = timestampMicros;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Packs an odometry sample into an array for the DataLog.
+     * 
+     * @param timestampSec The FPGA time of the sample in seconds.
+     * @param gyroAngle The gyro angle of the sample.
+     * @param modulePositions The module positions of the sample. The order is FL, FR, BL, BR.
+     * @param sample The array to pack into, of length odometrySampleLength.
+     */
+    public static void packOdometrySample(double timestampSec, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, double[] sample) {
+        sample[0] = timestampSec;
+        sample[1] = gyroAngle.getDegrees();
+        for(int i = 0; i < modulePositions.length; i++) {
+            sample[2 + 2 * i] = modulePositions[i].distanceMeters;
+            sample[3 + 2 * i] = modulePositions[i].angle.getRadians();
+        }
+    }
+
+    /**
+     * Packs a pose reset into an array for the DataLog.
+     * 
+     * <p>The reset holds the gyro angle and module positions it was made with, so the replay resets from the same
+     * sensor values even before the first odometry sample, such as the reset in the SwerveSys constructor.
+     * 
+     * @param timestampSec The FPGA time of the reset in seconds.
+     * @param gyroAngle The gyro angle at the reset.
+     * @param modulePositions The module positions at the reset. The order is FL, FR, BL, BR.
+     * @param pose The pose the estimator was reset to.
+     * 
+     * @return The packed reset, of length poseResetLength.
+     */
+    public static double[] packPoseReset(double timestampSec, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d pose) {
+        double[] reset = new double[poseResetLength];
+        packOdometrySample(timestampSec, gyroAngle, modulePositions, reset);
+        reset[odometrySampleLength] = pose.getX();
+        reset[odometrySampleLength + 1] = pose.getY();
+        reset[odometrySampleLength + 2] = pose.getRotation().getDegrees();
+        return reset;
+    }
+
+    /**
+     * Packs a Limelight frame into an array for the DataLog.
+     * 
+     * @param inputs The frame to pack.
+     * 
+     * @return The packed frame.
+     */
+    public static double[] packVisionFrame(LimelightInputs inputs) {
+        double[] frame = new double[visionFrameHeaderLength + inputs.botPoseWpiBlue.length];
+        frame[0] = inputs.timestampSec;
+        System.arraycopy(inputs.botPoseWpiBlue, 0, frame, visionFrameHeaderLength, inputs.botPoseWpiBlue.length);
+        return frame;
+    }
+
+    /**
+     * Unpacks a Limelight frame written by packVisionFrame().
+     * 
+     * @param frame The packed frame.
+     * 
+     * @return The unpacked frame.
+     */
+    public static LimelightInputs unpackVisionFrame(double[] frame) {
+        LimelightInputs inputs = new LimelightInputs();
+        inputs.timestampSec = frame[0];
+        inputs.botPoseWpiBlue = new double[frame.length - visionFrameHeaderLength];
+        System.arraycopy(frame, visionFrameHeaderLength, inputs.botPoseWpiBlue, 0, inputs.botPoseWpiBlue.length);
+        return inputs;
+    }
+
+    /**
+     * Replays a log and prints the final pose.
+     * 
+     * @param logPath The path of the .wpilog file to replay.
+     */
+    public static void run(String logPath) {
+        if(!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+
+        String outputPath = logPath + ".replay.csv";
+        try(PrintWriter output = new PrintWriter(outputPath)) {
+            Pose2d finalPose = replay(logPath, output);
+            System.out.println("Final pose: " + finalPose);
+            System.out.println("Poses written to " + outputPath);
+        }
+        catch(IOException e) {
+            System.err.println("Could not replay " + logPath + ": " + e.getMessage());
+        }
+
+        HAL.shutdown();
+    }
+
+    /**
+     * Replays a log through a new SwerveSys and VisionSys. The HAL must already be initialized.
+     * 
+     * @param logPath The path of the .wpilog file to replay.
+     * @param output Where to write the estimated pose after every odometry sample, as CSV.
+     * 
+     * @return The estimated pose at the end of the log.
+     * 
+     * @throws IOException If the log could not be read.
+     */
+    static Pose2d replay(String logPath, PrintWriter output) throws IOException {
+        List<Record> records = readRecords(logPath);
+
+        GyroIOReplay gyroIO = new GyroIOReplay();
+        SwerveModuleIOReplay[] moduleIOs = new SwerveModuleIOReplay[] {
+            new SwerveModuleIOReplay(),
+            new SwerveModuleIOReplay(),
+            new SwerveModuleIOReplay(),
+            new SwerveModuleIOReplay()
+        };
+
+        SwerveSys swerveSys = new SwerveSys(gyroIO, new SwerveModuleIO[] {moduleIOs[0], moduleIOs[1], moduleIOs[2], moduleIOs[3]}, true);
+
+        // Frames are handed to VisionSys on this thread as they are replayed.
+        Map<String, LimelightIOReplay> limelightIOs = new LinkedHashMap<>();
+        for(Record record : records) {
+            if(record.type == RecordType.VISION) {
+                limelightIOs.computeIfAbsent(record.limelightName, name -> new LimelightIOReplay());
+            }
+        }
+        VisionSys visionSys = new VisionSys(swerveSys, limelightIOs.values().toArray(new LimelightIO[0]));
+
+        int odometrySamples = 0;
+        int poseResets = 0;
+        int visionFrames = 0;
+
+        output.println("timestamp,x,y,heading_deg");
+
+        for(Record record : records) {
+            if(record.type == RecordType.ODOMETRY) {
+                double[] sample = record.values;
+                setLoggedSensors(sample, gyroIO, moduleIOs);
+                swerveSys.updateOdometry(sample[0]);
+                odometrySamples++;
+
+                Pose2d pose = swerveSys.getPose();
+                output.println(sample[0] + "," + pose.getX() + "," + pose.getY() + "," + pose.getRotation().getDegrees());
+            }
+            else if(record.type == RecordType.RESET) {
+                // The reset starts with the sensor values it was made with on the robot.
+                double[] reset = record.values;
+                setLoggedSensors(reset, gyroIO, moduleIOs);
+                swerveSys.setPose(
+                    new Pose2d(
+                        reset[odometrySampleLength],
+                        reset[odometrySampleLength + 1],
+                        Rotation2d.fromDegrees(reset[odometrySampleLength + 2])));
+                poseResets++;
+            }
+            else {
+                limelightIOs.get(record.limelightName).setLoggedFrame(record.values);
+                visionFrames++;
+            }
+        }
+
+        System.out.println("Replayed " + odometrySamples + " odometry samples, " + poseResets + " pose resets and "
+            + visionFrames + " vision frames (" + visionSys.getAcceptedFrameCount() + " accepted) from " + logPath);
+
+        return swerveSys.getPose();
+    }
+
+    /**
+     * Sets the replay IO to the sensor values of an odometry sample.
+     * 
+     * @param sample The sample, packed by packOdometrySample().
+     * @param gyroIO The replay gyro.
+     * @param moduleIOs The replay modules. The order is FL, FR, BL, BR.
+     */
+    private static void setLoggedSensors(double[] sample, GyroIOReplay gyroIO, SwerveModuleIOReplay[] moduleIOs) {
+        gyroIO.setLoggedYawDeg(sample[1]);
+        for(int i = 0; i < moduleIOs.length; i++) {
+            moduleIOs[i].setLoggedPosition(sample[2 + 2 * i], sample[3 + 2 * i]);
+        }
+    }
+
+    /**
+     * Reads the odometry samples, pose resets and Limelight frames from a log, ordered by recorded time.
+     * 
+     * @param logPath The path of the .wpilog file.
+     * 
+     * @return The records in the order they should be replayed.
+     * 
+     * @throws IOException If the log could not be read.
+     */
+    private static List<Record> readRecords(String logPath) throws IOException {
+        DataLogReader reader = new DataLogReader(logPath);
+        if(!reader.isValid()) {
+            throw new IOException("not a valid DataLog file");
+        }
+
+        Map<Integer, String> entryNames = new HashMap<>();
+        List<Record> records = new ArrayList<>();
+
+        for(DataLogRecord record : reader) {
+            if(record.isStart()) {
+                DataLogRecord.StartRecordData startData = record.getStartData();
+                entryNames.put(startData.entry, startData.name);
+                continue;
+            }
+            if(record.isControl()) {
+                continue;
+            }
+
+            String name = entryNames.get(record.getEntry());
+            if(name == null) {
+                continue;
+            }
+
+            if(name.equals(odometryEntry)) {
+                double[] values = record.getDoubleArray();
+                if(values.length == odometrySampleLength) {
+                    records.add(new Record(RecordType.ODOMETRY, null, record.getTimestamp(), values));
+                }
+            }
+            else if(name.equals(resetEntry)) {
+                double[] values = record.getDoubleArray();
+                if(values.length == poseResetLength) {
+                    records.add(new Record(RecordType.RESET, null, record.getTimestamp(), values));
+                }
+            }
+            else if(name.startsWith(visionEntryPrefix)) {
+                double[] values = record.getDoubleArray();
+                if(values.length >= visionFrameHeaderLength) {
+                    records.add(new Record(RecordType.VISION, name.substring(visionEntryPrefix.length()), record.getTimestamp(), values));
+                }
+            }
+        }
+
+        // Samples, resets and frames are recorded from different threads, so they are not guaranteed to be in order in the file.
+        // The sort is stable, so records with equal timestamps keep their file order.
+        records.sort((a, b) -> Long.compare(a.timestampMicros, b.timestampMicros));
+
+        return records;
+    }
+}
@@ -0,0 +1,248 @@
+package frc.robot.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Robot;
+import frc.robot.subsystems.SwerveSys;
+
+/**
+ * Runs the PathPlanner autos headless in simulation, faster than real time.
+ * 
+ * <p>The robot is built as it is in the simulator, but the simulated clock is paused and stepped one loop at a time, so
+ * each loop runs as soon as the last one finishes. Notifiers such as the odometry thread still run at their rates in
+ * simulated time. Each auto is run on the blue alliance from where it starts until it finishes or times out, and reports
+ * how far the simulated robot ended from the end of the last path, how long the auto took in simulated time and how long
+ * each loop took to compute.
+ * 
+ * <p>Run it from the desktop simulator with the AUTO_SIM environment variable set to the name of an auto, or to "all" to
+ * run every auto in the deploy directory. The results are also written to autosim-results.csv.
+ */
+public final class AutoSimRunner {
+
+    // Autos still running after this are stopped and reported as timed out.
+    private static final double autoTimeoutSec = 20.0;
+
+    // The robot is left disabled this long between autos so the simulated drivetrain comes to rest.
+    private static final double settleTimeSec = 1.0;
+
+    private static final double loopPeriodSec = TimedRobot.kDefaultPeriod;
+
+    private AutoSimRunner() {}
+
+    /**
+     * The result of running an auto.
+     */
+    private static class Result {
+        private String autoName;
+        private boolean isFinished;
+        private double autoTimeSec;
+        private double translationErrorMeters;
+        private double rotationErrorDeg;
+        private double estimateErrorMeters;
+        private int loopCount;
+        private double meanLoopMs;
+        private double p99LoopMs;
+        private double maxLoopMs;
+    }
+
+    /**
+     * Runs autos and prints the results.
+     * 
+     * @param autoName The name of the auto to run, or "all" to run every auto.
+     */
+    public static void run(String autoName) {
+        if(!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+
+        // The clock only moves when stepped.
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        Robot robot = new Robot();
+        robot.robotInit();
+        SwerveSys swerveSys = robot.getRobotContainer().getSwerveSys();
+
+        List<String> autoNames = autoName.equalsIgnoreCase("all") ? getAutoNames() : List.of(autoName);
+
+        List<Result> results = new ArrayList<>();
+        for(String name : autoNames) {
+            try {
+                results.add(runAuto(name, robot, swerveSys));
+            }
+            catch(Exception e) {
+                System.err.println("Could not run " + name + ": " + e.getMessage());
+            }
+        }
+
+        printResults(results);
+
+        HAL.shutdown();
+
+        // NetworkTables and the notifiers keep threads alive.
+        System.exit(0);
+    }
+
+    /**
+     * Returns the name of every auto in the deploy directory, in alphabetical order.
+     */
+    private static List<String> getAutoNames() {
+        File[] autoFiles = new File(Filesystem.getDeployDirectory(), "pathplanner/autos").listFiles((dir, file) -> file.endsWith(".auto"));
+        if(autoFiles == null) return List.of();
+
+        return Arrays.stream(autoFiles)
+            .map(file -> file.getName().substring(0, file.getName().length() - ".auto".length()))
+            .sorted()
+            .toList();
+    }
+
+    /**
+     * Runs a single auto from its starting pose until it finishes or times out.
+     */
+    private static Result runAuto(String autoName, Robot robot, SwerveSys swerveSys) throws Exception {
+        PathPlannerAuto auto = new PathPlannerAuto(autoName);
+
+        List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(autoName);
+        PathPlannerPath lastPath = paths.get(paths.size() - 1);
+        List<Pose2d> lastPathPoses = lastPath.getPathPoses();
+        Pose2d targetPose = new Pose2d(
+            lastPathPoses.get(lastPathPoses.size() - 1).getTranslation(),
+            lastPath.getGoalEndState().rotation());
+
+        // Places the robot at the start of the auto and lets it come to rest from the last one.
+        CommandScheduler.getInstance().cancelAll();
+        swerveSys.stop();
+        swerveSys.setPose(auto.getStartingPose());
+        setEnabled(false);
+        step(robot, (int)Math.round(settleTimeSec / loopPeriodSec), null);
+        swerveSys.setPose(auto.getStartingPose());
+
+        setEnabled(true);
+        auto.schedule();
+
+        int maxLoops = (int)Math.round(autoTimeoutSec / loopPeriodSec);
+        double[] loopTimesMs = new double[maxLoops];
+        int loopCount = 0;
+        while(loopCount < maxLoops && (loopCount == 0 || auto.isScheduled())) {
+            loopTimesMs[loopCount] = step(robot, 1, auto);
+            loopCount++;
+        }
+
+        Result result = new Result();
+        result.autoName = autoName;
+        result.isFinished = !auto.isScheduled();
+        result.autoTimeSec = loopCount * loopPeriodSec;
+        result.loopCount = loopCount;
+
+        auto.cancel();
+        swerveSys.stop();
+        setEnabled(false);
+
+        Pose2d finalPose = swerveSys.getSimulatedPose();
+        result.translationErrorMeters = finalPose.getTranslation().getDistance(targetPose.getTranslation());
+        result.rotationErrorDeg = Math.abs(finalPose.getRotation().minus(targetPose.getRotation()).getDegrees());
+        result.estimateErrorMeters = finalPose.getTranslation().getDistance(swerveSys.getPose().getTranslation());
+
+        double[] sortedLoopTimesMs = Arrays.copyOf(loopTimesMs, loopCount);
+        Arrays.sort(sortedLoopTimesMs);
+        result.meanLoopMs = Arrays.stream(sortedLoopTimesMs).average().orElse(0.0);
+        result.p99LoopMs = loopCount == 0 ? 0.0 : sortedLoopTimesMs[Math.min(loopCount - 1, (int)(0.99 * loopCount))];
+        result.maxLoopMs = loopCount == 0 ? 0.0 : sortedLoopTimesMs[loopCount - 1];
+
+        return result;
+    }
+
+    /**
+     * Runs robot loops, stepping the simulated clock by one loop period before each.
+     * 
+     * @param loops The number of loops to run.
+     * @param auto The auto being run, or null. Stepping stops early once it finishes.
+     * 
+     * @return The time the last loop took to compute in milliseconds, not counting the notifiers run by stepping the clock.
+     */
+    private static double step(Robot robot, int loops, Command auto) {
+        double loopMs = 0.0;
+        for(int i = 0; i < loops; i++) {
+            // Runs every notifier due in the period, such as the odometry thread, before returning.
+            SimHooks.stepTiming(loopPeriodSec);
+            DriverStation.refreshData();
+
+            long startNanos = System.nanoTime();
+            robot.robotPeriodic();
+            loopMs = (System.nanoTime() - startNanos) * 1e-6;
+
+            if(auto != null && !auto.isScheduled()) break;
+        }
+        return loopMs;
+    }
+
+    private static void setEnabled(boolean isEnabled) {
+        DriverStationSim.setEnabled(isEnabled);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+
+    /**
+     * Prints the results and writes them to autosim-results.csv.
+     */
+    private static void printResults(List<Result> results) {
+        String outputPath = "autosim-results.csv";
+        try(PrintWriter output = new PrintWriter(outputPath)) {
+            output.println("auto,finished,auto_time_s,translation_error_m,rotation_error_deg,estimate_error_m,loops,mean_loop_ms,p99_loop_ms,max_loop_ms");
+
+            for(Result result : results) {
+                System.out.printf(
+                    "%-24s %-9s %6.2f s  error %.3f m %5.1f deg  estimate off by %.3f m  loop mean %.3f ms p99 %.3f ms max %.3f ms%n",
+                    result.autoName,
+                    result.isFinished ? "finished" : "timed out",
+                    result.autoTimeSec,
+                    result.translationErrorMeters,
+                    result.rotationErrorDeg,
+                    result.estimateErrorMeters,
+                    result.meanLoopMs,
+                    result.p99LoopMs,
+                    result.maxLoopMs);
+
+                output.println(
+                    "\"" + result.autoName + "\","
+                    + result.isFinished + ","
+                    + result.autoTimeSec + ","
+                    + result.translationErrorMeters + ","
+                    + result.rotationErrorDeg + ","
+                    + result.estimateErrorMeters + ","
+                    + result.loopCount + ","
+                    + result.meanLoopMs + ","
+                    + result.p99LoopMs + ","
+                    + result.maxLoopMs);
+            }
+        }
+        catch(IOException e) {
+            System.err.println("Could not write " + outputPath + ": " + e.getMessage());
+        }
+
+        System.out.println("Results written to " + outputPath);
+    }
+}
@@ -7,8 +7,11 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.ButtonPanelConstants;
 import frc.robot.Constants.CANDevices;
 import frc.robot.RobotContainer;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class ConveyorSys extends SubsystemBase {
+
+    private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("ConveyorSys.periodic");
     
     public static SparkMax m_conveyorMtr = new SparkMax(CANDevices.m_conveyorMtrId, MotorType.kBrushed);
 
@@ -22,6 +25,7 @@ public class ConveyorSys extends SubsystemBase {
 
     @Override
     public void periodic() {
+        periodicProfile.start();
 
         if(RobotContainer.ButtonPanel.getRawButton(ButtonPanelConstants.conveyorControlPort) == false){
             ConveyorBwd = true;
@@ -46,6 +50,8 @@ public class ConveyorSys extends SubsystemBase {
         ) {
             m_conveyorMtr.set(0);
         }
+
+        periodicProfile.stop();
     }
 
     public ConveyorSys() {
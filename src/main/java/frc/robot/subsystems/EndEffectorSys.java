@@ -4,8 +4,11 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Servo;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.CANDevices;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class EndEffectorSys extends SubsystemBase {
+
+    private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("EndEffectorSys.periodic");
     
     public static Servo m_Servo = new Servo(CANDevices.m_coralReleaseSevCnl);
 
@@ -21,6 +24,8 @@ public class EndEffectorSys extends SubsystemBase {
 
     @Override
     public void periodic() {
+        periodicProfile.start();
+
         if(DriverStation.isEnabled() == true){
         if(
             releaseCoral == true
@@ -36,5 +41,7 @@ public class EndEffectorSys extends SubsystemBase {
             m_Servo.set(0.5);
         }
     }
+
+        periodicProfile.stop();
     }
 }
@@ -48,6 +48,36 @@ public class IntakeSys extends SubsystemBase {
     private boolean Algeaoutrun = false;
     private boolean Algeaoutrunbwd = false;
 
+    /**
+     * The names of the state flags, in the order returned by getStateFlags().
+     */
+    public static final String[] stateFlagNames = new String[] {
+        "Rintakeout", "Lintakeout", "Lintakein", "Rintakein", "intakein",
+        "Lintakeoutrun", "Rintakeoutrun", "Rintakeoutrunbwd", "Lintakeoutrunbwd",
+        "Algeaoutrun", "Algeaoutrunbwd"
+    };
+
+    private final boolean[] stateFlags = new boolean[stateFlagNames.length];
+
+    /**
+     * Returns the current state flags, in the order of stateFlagNames.
+     * The returned array is reused and overwritten on the next call.
+     */
+    public boolean[] getStateFlags() {
+        stateFlags[0] = Rintakeout;
+        stateFlags[1] = Lintakeout;
+        stateFlags[2] = Lintakein;
+        stateFlags[3] = Rintakein;
+        stateFlags[4] = intakein;
+        stateFlags[5] = Lintakeoutrun;
+        stateFlags[6] = Rintakeoutrun;
+        stateFlags[7] = Rintakeoutrunbwd;
+        stateFlags[8] = Lintakeoutrunbwd;
+        stateFlags[9] = Algeaoutrun;
+        stateFlags[10] = Algeaoutrunbwd;
+        return stateFlags;
+    }
+
     public boolean Litnakeoutrun() {
         return Lintakeoutrun = true;
     }
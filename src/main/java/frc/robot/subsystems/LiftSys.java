@@ -18,9 +18,12 @@ import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import frc.robot.Constants.CANDevices;
 import frc.robot.Constants.LiftConstants;
+import frc.robot.util.profiling.LoopProfiler;
 
 
 public class LiftSys extends SubsystemBase {
+
+    private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("LiftSys.periodic");
     
     public static SparkMax m_leftLiftMtr = new SparkMax(CANDevices.m_leftLiftMtrId, MotorType.kBrushless);
     //public static SparkMax m_rightLiftMtr = new SparkMax(CANDevices.m_rightLiftMtrId, MotorType.kBrushless);
@@ -31,6 +34,9 @@ public class LiftSys extends SubsystemBase {
     double masterPose = m_leftliftEnc.getPosition();
     //double slavePose = m_rightliftEnc.getPosition();
 
+    // The lift position read at the start of periodic(), for threads that should not read the Spark themselves.
+    private volatile double cachedPositionRevs = 0.0;
+
     private boolean islvl4Called = false;
     private boolean islvl3Called = false;
     private boolean islvl2Called = false;
@@ -68,6 +74,28 @@ public class LiftSys extends SubsystemBase {
 
     }
 
+    /**
+     * Returns the position of the left lift encoder, in motor rotations.
+     */
+    public double getPositionRevs() {
+        return m_leftliftEnc.getPosition();
+    }
+
+    /**
+     * Returns the position of the left lift encoder as of the last periodic(), in motor rotations.
+     * <p>Safe to call from any thread, such as the LED render thread.
+     */
+    public double getCachedPositionRevs() {
+        return cachedPositionRevs;
+    }
+
+    /**
+     * Returns the output currently commanded to the left lift motor, from -1 to 1.
+     */
+    public double getOutput() {
+        return m_leftLiftMtr.get();
+    }
+
     public boolean islvl4Called() {
         return islvl4Called = true;
     }
@@ -114,6 +142,9 @@ public class LiftSys extends SubsystemBase {
 
     @Override
     public void periodic() {
+        periodicProfile.start();
+
+        cachedPositionRevs = m_leftliftEnc.getPosition();
 
         /*double masterPose = m_leftliftEnc.getPosition();
 
@@ -243,6 +274,8 @@ public class LiftSys extends SubsystemBase {
         }
         } 
     }*/
+
+        periodicProfile.stop();
     } 
 
 
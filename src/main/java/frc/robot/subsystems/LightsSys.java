@@ -4,11 +4,16 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj.util.Color;
+import java.util.function.DoubleSupplier;
+
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.LightsConstants;
+import frc.robot.util.led.LEDEffect;
+import frc.robot.util.led.LEDEffectEngine;
+import frc.robot.util.led.LEDEffects;
 import frc.robot.util.led.LEDStrip;
 import frc.robot.util.led.LEDStripArray;
+import frc.robot.util.led.LEDStripGroup;
 
 public class LightsSys extends SubsystemBase {
 
@@ -18,8 +23,16 @@ public class LightsSys extends SubsystemBase {
 
 	private final LEDStripArray ledStripArray;
 
-	/** Creates a new LightsSys. */
-	public LightsSys() {
+	private final LEDEffectEngine effectEngine;
+
+	/**
+	 * Creates a new LightsSys.
+	 *
+	 * @param liftPositionRevsSupplier The position of the lift, shown as a progress bar on LightsConstants.liftLayer.
+	 *                                 Called from the render thread, so it should return a cached value instead of
+	 *                                 reading the motor controller.
+	 */
+	public LightsSys(DoubleSupplier liftPositionRevsSupplier) {
 		exampleStrip1 = new LEDStrip(78);
 		exampleStrip2 = new LEDStrip(128);
 		exampleStrip3 = new LEDStrip(78);
@@ -29,6 +42,19 @@ public class LightsSys extends SubsystemBase {
 		ledStripArray = new LEDStripArray(9, exampleStrip1, exampleStrip2, exampleStrip3);
 
 		ledStripArray.setBrightnesses(LightsConstants.brightnessPercentage);
+
+		effectEngine = new LEDEffectEngine(
+			new LEDStripGroup(exampleStrip1, exampleStrip2, exampleStrip3), LightsConstants.layerCount);
+
+		effectEngine.setEffect(
+			LightsConstants.liftLayer,
+			LEDEffects.progressBar(
+				LightsConstants.liftProgressColor,
+				() -> liftPositionRevsSupplier.getAsDouble() / LightsConstants.liftFullPositionRevs));
+
+		// The effects are drawn and rendered off the main loop, which only pushes finished frames to the LEDs.
+		ledStripArray.setRenderCallback(effectEngine::render);
+		ledStripArray.startRenderThread(LightsConstants.maxFrameRateHz);
 	}
 
 	@Override
@@ -36,11 +62,17 @@ public class LightsSys extends SubsystemBase {
 		// This method will be called once per scheduler run
 	}
 
-	public void setColor(Color color) {
-		ledStripArray.setColors(color);
+	/**
+	 * Sets the effect of a layer, such as LightsConstants.baseLayer. Setting the effect a layer already has does nothing.
+	 *
+	 * @param layer The layer.
+	 * @param effect The effect, or null to empty the layer.
+	 */
+	public void setEffect(int layer, LEDEffect effect) {
+		effectEngine.setEffect(layer, effect);
 	}
 
-	public void setValue(double value) {
-		ledStripArray.setValues(value);
+	public void clearEffect(int layer) {
+		effectEngine.clearEffect(layer);
 	}
 }
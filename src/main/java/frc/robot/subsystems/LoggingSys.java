@@ -0,0 +1,102 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StructArrayLogEntry;
+import edu.wpi.first.util.datalog.StructLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+public class LoggingSys extends SubsystemBase {
+
+    private final SwerveSys swerveSys;
+    private final LiftSys liftSys;
+    private final IntakeSys intakeSys;
+
+    private final StructArrayLogEntry<SwerveModulePosition> modulePositionsLog;
+    private final StructArrayLogEntry<SwerveModuleState> measuredStatesLog;
+    private final StructArrayLogEntry<SwerveModuleState> desiredStatesLog;
+    private final DoubleLogEntry gyroYawLog;
+    private final StructLogEntry<Pose2d> poseLog;
+
+    private final DoubleLogEntry liftPositionLog;
+    private final DoubleLogEntry liftOutputLog;
+
+    private final BooleanLogEntry[] intakeFlagLogs;
+
+    private final DoubleLogEntry loopPeriodLog;
+    private final DoubleLogEntry schedulerTimeLog;
+
+    private double lastPeriodicSec = Timer.getFPGATimestamp();
+
+    /**
+     * Constructs a new LoggingSys.
+     * 
+     * <p>LoggingSys records robot state to the on-robot DataLog every loop so matches can be
+     * diagnosed afterwards. Appending to the log only copies into memory; DataLogManager's background
+     * thread does the USB and flash writes, so recording never blocks the loop.
+     * 
+     * @param swerveSys The SwerveSys to record.
+     * @param liftSys The LiftSys to record.
+     * @param intakeSys The IntakeSys to record.
+     */
+    public LoggingSys(SwerveSys swerveSys, LiftSys liftSys, IntakeSys intakeSys) {
+        this.swerveSys = swerveSys;
+        this.liftSys = liftSys;
+        this.intakeSys = intakeSys;
+
+        DataLog log = DataLogManager.getLog();
+
+        modulePositionsLog = StructArrayLogEntry.create(log, "/Drive/ModulePositions", SwerveModulePosition.struct);
+        measuredStatesLog = StructArrayLogEntry.create(log, "/Drive/MeasuredStates", SwerveModuleState.struct);
+        desiredStatesLog = StructArrayLogEntry.create(log, "/Drive/DesiredStates", SwerveModuleState.struct);
+        gyroYawLog = new DoubleLogEntry(log, "/Drive/GyroYawDeg");
+        poseLog = StructLogEntry.create(log, "/Drive/Pose", Pose2d.struct);
+
+        liftPositionLog = new DoubleLogEntry(log, "/Lift/PositionRevs");
+        liftOutputLog = new DoubleLogEntry(log, "/Lift/Output");
+
+        intakeFlagLogs = new BooleanLogEntry[IntakeSys.stateFlagNames.length];
+        for(int i = 0; i < intakeFlagLogs.length; i++) {
+            intakeFlagLogs[i] = new BooleanLogEntry(log, "/Intake/" + IntakeSys.stateFlagNames[i]);
+        }
+
+        loopPeriodLog = new DoubleLogEntry(log, "/Loop/PeriodMs");
+        schedulerTimeLog = new DoubleLogEntry(log, "/Loop/SchedulerTimeMs");
+    }
+
+    @Override
+    public void periodic() {
+        double timestampSec = Timer.getFPGATimestamp();
+        loopPeriodLog.append((timestampSec - lastPeriodicSec) * 1000.0);
+        lastPeriodicSec = timestampSec;
+
+        modulePositionsLog.append(swerveSys.getModulePositions());
+        measuredStatesLog.append(swerveSys.getModuleStates());
+        desiredStatesLog.append(swerveSys.getDesiredModuleStates());
+        gyroYawLog.append(swerveSys.getGyroAngle().getDegrees());
+        poseLog.append(swerveSys.getPose());
+
+        liftPositionLog.append(liftSys.getPositionRevs());
+        liftOutputLog.append(liftSys.getOutput());
+
+        boolean[] intakeFlags = intakeSys.getStateFlags();
+        for(int i = 0; i < intakeFlagLogs.length; i++) {
+            intakeFlagLogs[i].update(intakeFlags[i]);
+        }
+    }
+
+    /**
+     * Records how long the command scheduler took to run this loop.
+     * 
+     * @param schedulerTimeSec The time CommandScheduler.run() took, in seconds.
+     */
+    public void logSchedulerTime(double schedulerTimeSec) {
+        schedulerTimeLog.append(schedulerTimeSec * 1000.0);
+    }
+}
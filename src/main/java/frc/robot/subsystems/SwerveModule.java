@@ -1,24 +1,16 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.signals.SensorDirectionValue;
-import com.revrobotics.spark.SparkFlex;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.spark.SparkClosedLoopController;
-import com.revrobotics.spark.SparkBase.ControlType;
-import com.revrobotics.spark.SparkBase.PersistMode;
-import com.revrobotics.spark.SparkBase.ResetMode;
-import com.revrobotics.spark.SparkLowLevel.MotorType;
-import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
-import com.revrobotics.spark.config.SparkFlexConfig;
-import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
-
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.subsystems.io.SwerveModuleIO.SwerveModuleInputs;
+import frc.robot.subsystems.io.SwerveModuleIOSparkFlex;
+import frc.robot.util.phoenix.SignalBatch;
 
 /**
  * Class to represent and handle a swerve module
@@ -27,16 +19,12 @@ import frc.robot.Constants.DriveConstants;
  */
 public class SwerveModule extends SubsystemBase {
 
-    private final SparkFlex driveMtr;
-    private final SparkFlex steerMtr;
-
-    private final RelativeEncoder driveEnc;
-    private final RelativeEncoder steerEnc;
+    private final SwerveModuleIO io;
 
-    private final CANcoder canCoder;
-
-    private final SparkClosedLoopController steerController;
-    private final SparkClosedLoopController driveController;
+    // Sensor values captured once per loop by updateInputs(). The getters below read these
+    // instead of going to the motor controllers on every call.
+    private final SwerveModuleInputs inputs = new SwerveModuleInputs();
+    private Rotation2d steerAngle = new Rotation2d();
 
     /**
      * Constructs a new SwerveModule.
@@ -49,68 +37,74 @@ public class SwerveModule extends SubsystemBase {
      * @param measuredOffsetRadians Offset of CANCoder reading from forward.
      */
     public SwerveModule(int driveMtrId, int steerMtrId, int canCoderId, Rotation2d offset) {
+        this(new SwerveModuleIOSparkFlex(driveMtrId, steerMtrId, canCoderId, offset));
+    }
 
-        driveMtr = new SparkFlex(driveMtrId, MotorType.kBrushless);
-        steerMtr = new SparkFlex(steerMtrId, MotorType.kBrushless);
-
-        driveEnc = driveMtr.getEncoder();
-        steerEnc = steerMtr.getEncoder();
-
-        canCoder = new CANcoder(canCoderId);
-
-        steerController = steerMtr.getClosedLoopController();
-        driveController = driveMtr.getClosedLoopController();
-
-        SparkFlexConfig driveConfig = new SparkFlexConfig();
-        driveConfig 
-            .inverted(true)
-            .idleMode(IdleMode.kBrake);
-        driveConfig.encoder
-            .positionConversionFactor(DriveConstants.driveMetersPerEncRev)
-            .velocityConversionFactor(DriveConstants.driveMetersPerSecPerMtrRPM);
-        driveConfig.closedLoop
-            .feedbackSensor(FeedbackSensor.kPrimaryEncoder)
-            .pid(DriveConstants.drivekP, 0, DriveConstants.drivekD);
+    /**
+     * Constructs a new SwerveModule on top of the given hardware layer.
+     * 
+     * @param io The SwerveModuleIO to read sensors from and send outputs to.
+     */
+    public SwerveModule(SwerveModuleIO io) {
+        this.io = io;
 
+        updateInputs();
+    }
 
-        SparkFlexConfig steerConfig = new SparkFlexConfig();
-        steerConfig 
-            .inverted(true)
-            .idleMode(IdleMode.kCoast);
-        steerConfig.encoder
-            .positionConversionFactor(DriveConstants.steerRadiansPerEncRev);
-        steerConfig.closedLoop
-            .feedbackSensor(FeedbackSensor.kPrimaryEncoder)
-            .pid(DriveConstants.steerkP, 0, DriveConstants.steerkD);
+    @Override
+    public void simulationPeriodic() {
+        io.simulate(TimedRobot.kDefaultPeriod);
+    }
 
-        driveMtr.configure(driveConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
-        steerMtr.configure(steerConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+    /**
+     * Reads the drive and steer encoders and the drive output once and caches them for the rest of the loop.
+     * 
+     * <p>Should be called once per loop before anything reads the module.
+     */
+    public void updateInputs() {
+        io.updateInputs(inputs);
 
-        CANcoderConfiguration ccConfig = new CANcoderConfiguration();
-        ccConfig.MagnetSensor.AbsoluteSensorDiscontinuityPoint = 0.5;
-        ccConfig.MagnetSensor.SensorDirection = SensorDirectionValue.CounterClockwise_Positive;
-        canCoder.getConfigurator().apply(ccConfig);
+        steerAngle = new Rotation2d(inputs.steerAngleRad);
+    }
 
-        // Initializes the steer encoder position to the CANCoder position, accounting for offset.
-        steerEnc.setPosition(getCanCoderAngle().getRadians() - offset.getRadians());
+    /**
+     * Adds the CANCoder signals of this module to a signal batch, which is then responsible for refreshing them.
+     * 
+     * @param signals The SignalBatch to register with.
+     */
+    public void registerSignals(SignalBatch signals) {
+        io.registerSignals(signals);
     }
 
     /**
-     * Returns the current position of the module.
+     * Returns the position of the module from the last call to updateInputs().
      *
      * @return The current position of the module.
      */
     public SwerveModulePosition getPosition() {
 
     return new SwerveModulePosition(
-        driveEnc.getPosition(), getSteerEncAngle());
+        inputs.drivePositionMeters, steerAngle);
+    }
+
+    /**
+     * Reads the position of the module directly from the encoders, bypassing the cached inputs.
+     * 
+     * <p>Used by odometry, which samples faster than the main loop.
+     *
+     * @return The current position of the module.
+     */
+    public SwerveModulePosition samplePosition() {
+        return new SwerveModulePosition(
+            io.getDrivePositionMeters(), new Rotation2d(io.getSteerAngleRad()));
     }
 
     /**
      * Resets the distance traveled by the module to zero.
      */
     public void resetDriveDistance() {
-        driveEnc.setPosition(0.0);
+        io.resetDrivePosition();
+        inputs.drivePositionMeters = 0.0;
     }
 
     /**
@@ -120,7 +114,7 @@ public class SwerveModule extends SubsystemBase {
      */
     public double getDriveDistanceMeters() {
 
-        return driveEnc.getPosition();
+        return inputs.drivePositionMeters;
 
     }
     
@@ -129,10 +123,12 @@ public class SwerveModule extends SubsystemBase {
      * This measurement does not account for offset.
      * It is preferred to use the method getSteerEncAngle().
      * 
+     * <p>The value is refreshed by the SignalBatch passed to registerSignals().
+     * 
      * @return The value of the CANCoder.
      */
     public Rotation2d getCanCoderAngle() {
-        return new Rotation2d(canCoder.getAbsolutePosition().getValueAsDouble() * 2.0 * Math.PI);
+        return new Rotation2d(io.getCanCoderAngleRad());
     }
 
     /**
@@ -142,7 +138,7 @@ public class SwerveModule extends SubsystemBase {
      * @return The current absolute angle of the module.
      */
     public Rotation2d getSteerEncAngle() {
-        return new Rotation2d(steerEnc.getPosition());
+        return steerAngle;
     }
 
     /**
@@ -151,7 +147,7 @@ public class SwerveModule extends SubsystemBase {
      * @return The current velocity of the module in meters per second.
      */
     public double getVelocityMetersPerSec() {
-        return driveEnc.getVelocity();
+        return inputs.driveVelocityMetersPerSec;
     }
 
     /**
@@ -162,7 +158,7 @@ public class SwerveModule extends SubsystemBase {
      * 
      * @return The adjusted target angle for the module in radians.
      */
-    public double calculateAdjustedAngle(double targetAngle, double currentAngle) {
+    public static double calculateAdjustedAngle(double targetAngle, double currentAngle) {
         double modAngle = currentAngle % (2.0 * Math.PI);
 
         if (modAngle < 0.0) modAngle += 2.0 * Math.PI;
@@ -175,6 +171,47 @@ public class SwerveModule extends SubsystemBase {
         return newTarget;
     }
 
+    /**
+     * Optimizes a target angle to minimize the change in heading, as SwerveModuleState.optimize() does.
+     * <p>If the target is more than a quarter turn from the current angle, the module turns to the opposite angle and
+     * drives in reverse instead (e.g. module turns 1 degree and reverses drive direction to get from 90 degrees to -89 degrees).
+     * 
+     * @param targetAngleRad The desired angle of the module in radians.
+     * @param currentAngleRad The current angle of the module in radians.
+     * 
+     * @return The angle to turn the module to, wrapped to [-pi, pi] radians.
+     */
+    public static double optimizeAngle(double targetAngleRad, double currentAngleRad) {
+        double optimizedAngleRad = MathUtil.angleModulus(targetAngleRad);
+
+        if(Math.abs(MathUtil.angleModulus(targetAngleRad - currentAngleRad)) > 0.5 * Math.PI) {
+            optimizedAngleRad = MathUtil.angleModulus(optimizedAngleRad + Math.PI);
+        }
+
+        return optimizedAngleRad;
+    }
+
+    /**
+     * Optimizes a target speed to go with optimizeAngle(), then scales it by the cosine of the turn error to help
+     * prevent skew, as SwerveModuleState.optimize() and cosineScale() do.
+     * 
+     * @param speedMetersPerSec The desired speed of the module in meters per second.
+     * @param targetAngleRad The desired angle of the module in radians, before optimizing.
+     * @param currentAngleRad The current angle of the module in radians.
+     * 
+     * @return The speed to drive the module at in meters per second, reversed if optimizeAngle() flips the module.
+     */
+    public static double optimizeSpeed(double speedMetersPerSec, double targetAngleRad, double currentAngleRad) {
+        double errorRad = MathUtil.angleModulus(targetAngleRad - currentAngleRad);
+
+        if(Math.abs(errorRad) > 0.5 * Math.PI) {
+            speedMetersPerSec = -speedMetersPerSec;
+            errorRad = MathUtil.angleModulus(errorRad + Math.PI);
+        }
+
+        return speedMetersPerSec * Math.cos(errorRad);
+    }
+
     /**
      * Sets the desired state of the swerve module and optimizes it.
      * <p>If closed-loop, uses PID and a feedforward to control the speed.
@@ -185,40 +222,46 @@ public class SwerveModule extends SubsystemBase {
      * @param isClosedLoop True if the velocity control is closed-loop.
      */
     public void setDesiredState(SwerveModuleState desiredState, boolean isClosedLoop) {
-        
-        // Optimizes speed and angle to minimize change in heading
-        // (e.g. module turns 1 degree and reverses drive direction to get from 90 degrees to -89 degrees)
-        desiredState = SwerveModuleState.optimize(desiredState, getSteerEncAngle());
-
-        // Scale velocity based on turn error to help prevent skew.
-        double angleErrorRad = desiredState.angle.getRadians() - getSteerEncAngle().getRadians();
-        desiredState.speedMetersPerSecond *= Math.cos(angleErrorRad);
+        setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getRadians(), isClosedLoop);
+    }
 
-        steerController.setReference(
+    /**
+     * Sets the desired speed and angle of the swerve module and optimizes it.
+     * <p>Same as setDesiredState(SwerveModuleState, boolean), but takes primitives so the drive loop
+     * does not need to create any objects.
+     *
+     * @param speedMetersPerSec The desired speed of the module in meters per second.
+     * @param angleRad The desired angle of the module in radians.
+     * @param isClosedLoop True if the velocity control is closed-loop.
+     */
+    public void setDesiredState(double speedMetersPerSec, double angleRad, boolean isClosedLoop) {
+        // Optimizes speed and angle to minimize change in heading.
+        double targetAngleRad = optimizeAngle(angleRad, inputs.steerAngleRad);
+        speedMetersPerSec = optimizeSpeed(speedMetersPerSec, angleRad, inputs.steerAngleRad);
+
+        // The steer encoder is continuous, so the setpoint is adjusted from the raw position, or it could land whole
+        // turns away from the module.
+        io.setSteerAngleSetpoint(
             calculateAdjustedAngle(
-                desiredState.angle.getRadians(),
-                getSteerEncAngle().getRadians()),
-            ControlType.kPosition
+                targetAngleRad,
+                inputs.steerAngleRad)
         );
 
         if(!isClosedLoop) {
-            driveMtr.set(desiredState.speedMetersPerSecond / DriveConstants.freeMetersPerSecond);
+            io.setDriveOutput(speedMetersPerSec / DriveConstants.freeMetersPerSecond);
         }
         else {
-            driveController.setReference(0.0,ControlType.kPosition);
+            io.setDrivePositionSetpoint(0.0);
         }
     }
 
     public void runCharacterization(double volts) {
-        steerController.setReference(
-            0.0,
-            ControlType.kPosition
-        );
+        io.setSteerAngleSetpoint(0.0);
 
-        driveMtr.setVoltage(volts);
+        io.setDriveVoltage(volts);
     }
 
     public double getDriveVoltage() {
-        return driveMtr.get() * 12.0;
+        return inputs.driveAppliedOutput * 12.0;
     }
 }
\ No newline at end of file
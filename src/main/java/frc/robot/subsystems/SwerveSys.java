@@ -1,7 +1,8 @@
 package frc.robot.subsystems;
 
 import java.util.Optional;
-import com.ctre.phoenix6.hardware.Pigeon2;
+import java.util.concurrent.locks.ReentrantLock;
+
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.config.PIDConstants;
 import com.pathplanner.lib.config.RobotConfig;
@@ -9,29 +10,45 @@ import com.pathplanner.lib.controllers.PPHolonomicDriveController;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.VecBuilder;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants.CANDevices;
 import frc.robot.Constants.DriveConstants;
-/*import frc.robot.Constants.VisionConstants;*/
-import frc.robot.util.limelight.LimelightPoseEstimator;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.replay.LogReplay;
+import frc.robot.subsystems.io.GyroIO;
+import frc.robot.subsystems.io.GyroIOPigeon2;
+import frc.robot.subsystems.io.GyroIOSim;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.subsystems.io.SwerveModuleIOSim;
+import frc.robot.subsystems.io.SwerveModuleIOSparkFlex;
+import frc.robot.util.phoenix.SignalBatch;
+import frc.robot.util.swerve.LatencyCompensatedPoseEstimator;
+import frc.robot.util.swerve.ModuleStateBuffer;
+import frc.robot.util.telemetry.TelemetryPublisher;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class SwerveSys extends SubsystemBase {
 
+    private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("SwerveSys.periodic");
+
     NetworkTable table = NetworkTableInstance.getDefault().getTable("limelight");
     NetworkTableEntry tx = table.getEntry("tx");
     NetworkTableEntry ty = table.getEntry("ty");
@@ -40,38 +57,21 @@ public class SwerveSys extends SubsystemBase {
     //PathPlanner config
     RobotConfig config;
 
-    // Initializes swerve module objects
-    private final SwerveModule frontLeftMod = 
-        new SwerveModule(
-            CANDevices.frontLeftDriveMtrId,
-            CANDevices.frontLeftSteerMtrId,
-            CANDevices.frontLeftCanCoderId,
-            DriveConstants.frontLeftModOffset
-        );
+    // Swerve module objects, in the order FL, FR, BL, BR.
+    private final SwerveModule frontLeftMod;
+    private final SwerveModule frontRightMod;
+    private final SwerveModule backLeftMod;
+    private final SwerveModule backRightMod;
 
-    private final SwerveModule frontRightMod = 
-        new SwerveModule(
-            CANDevices.frontRightDriveMtrId,
-            CANDevices.frontRightSteerMtrId,
-            CANDevices.frontRightCanCoderId,
-            DriveConstants.frontRightModOffset
-        );
+    // Reused by drive() and setChassisSpeeds() so the drive loop does not allocate module states.
+    private final ModuleStateBuffer moduleStates = new ModuleStateBuffer(DriveConstants.moduleTranslations);
 
-    private final SwerveModule backLeftMod = 
-        new SwerveModule(
-            CANDevices.backLeftDriveMtrId,
-            CANDevices.backLeftSteerMtrId,
-            CANDevices.backLeftCanCoderId,
-            DriveConstants.backLeftModOffset
-        );
+    // Publishes the drivetrain state as packed structs, which AdvantageScope can display directly.
+    private final TelemetryPublisher telemetry =
+        new TelemetryPublisher(NetworkTableInstance.getDefault().getTable("SwerveSys"));
 
-    private final SwerveModule backRightMod = 
-        new SwerveModule(
-            CANDevices.backRightDriveMtrId,
-            CANDevices.backRightSteerMtrId,
-            CANDevices.backRightCanCoderId,
-            DriveConstants.backRightModOffset
-        );
+    // Updated in periodic() so drive() does not need to query the DriverStation.
+    private boolean isRedAlliance = false;
 
     private boolean isLocked = false;
     public boolean isLocked() {
@@ -104,24 +104,34 @@ public class SwerveSys extends SubsystemBase {
         return omegaOverrideRadPerSec.isPresent();
     }
 
-    private final Pigeon2 imu = new Pigeon2(CANDevices.imuId);
+    private final GyroIO gyroIO;
+
+    // Every Phoenix signal the drivetrain reads. Refreshed together by the odometry thread.
+    private final SignalBatch signals = new SignalBatch();
 
     // Odometry for the robot, measured in meters for linear motion and radians for rotational motion
-    // Takes in kinematics and robot angle for parameters
-
-    private final SwerveDrivePoseEstimator poseEstimator = 
-        new SwerveDrivePoseEstimator(
-            DriveConstants.kinematics,
-            imu.getRotation2d(),
-            getModulePositions(),
-            new Pose2d(),
-            VecBuilder.fill(0.05, 0.05, Units.degreesToRadians(0.25)),
-            VecBuilder.fill(0.35, 0.35, Units.degreesToRadians(30.0)));
-
-    /*private final LimelightPoseEstimator[] limelightPoseEstimators = new LimelightPoseEstimator[] {
-        new LimelightPoseEstimator(VisionConstants.frontLimelightName),
-        new LimelightPoseEstimator(VisionConstants.backLimelightName)
-    };*/
+    // Keeps a history of odometry poses so delayed vision frames are fused without replaying odometry.
+    private final LatencyCompensatedPoseEstimator poseEstimator;
+
+    // Guards poseEstimator, which is updated by the odometry thread and reset from the main loop.
+    private final ReentrantLock odometryLock = new ReentrantLock();
+
+    // The latest estimate, replaced as a whole after each update so getPose() never waits on odometryLock.
+    private volatile Pose2d latestPose = new Pose2d();
+
+    // Runs updateOdometry() on its own thread at DriveConstants.odometryFrequencyHz. Null in replay.
+    private final Notifier odometryNotifier;
+
+    // Records every odometry sample so the match can be replayed. Null in replay.
+    private final DoubleArrayLogEntry odometryLog;
+    private final double[] odometrySample = new double[LogReplay.odometrySampleLength];
+
+    // Records every pose reset so the replay resets at the same points. Null in replay.
+    private final DoubleArrayLogEntry resetLog;
+
+    // Where the simulated robot really is, integrated from the simulated modules. Vision is rendered from this.
+    private volatile Pose2d simulatedPose = new Pose2d();
+    private SwerveModulePosition[] lastSimModulePositions = null;
 
     public void resetPPPose(Pose2d pose) {
         setPose(pose);
@@ -134,14 +144,113 @@ public class SwerveSys extends SubsystemBase {
      * <p>SwerveCmd contains 4 {@link SwerveModule}, a gyro, and methods to control the drive base and odometry.
      */
     public SwerveSys() {
+        this(
+            RobotBase.isReal() ? new GyroIOPigeon2(CANDevices.imuId) : new GyroIOSim(),
+            RobotBase.isReal() ? createSparkFlexModuleIOs() : createSimModuleIOs(),
+            false
+        );
+    }
+
+    /**
+     * Creates the hardware layer of each module on the robot. The order is FL, FR, BL, BR.
+     */
+    private static SwerveModuleIO[] createSparkFlexModuleIOs() {
+        return new SwerveModuleIO[] {
+            new SwerveModuleIOSparkFlex(
+                CANDevices.frontLeftDriveMtrId,
+                CANDevices.frontLeftSteerMtrId,
+                CANDevices.frontLeftCanCoderId,
+                DriveConstants.frontLeftModOffset
+            ),
+            new SwerveModuleIOSparkFlex(
+                CANDevices.frontRightDriveMtrId,
+                CANDevices.frontRightSteerMtrId,
+                CANDevices.frontRightCanCoderId,
+                DriveConstants.frontRightModOffset
+            ),
+            new SwerveModuleIOSparkFlex(
+                CANDevices.backLeftDriveMtrId,
+                CANDevices.backLeftSteerMtrId,
+                CANDevices.backLeftCanCoderId,
+                DriveConstants.backLeftModOffset
+            ),
+            new SwerveModuleIOSparkFlex(
+                CANDevices.backRightDriveMtrId,
+                CANDevices.backRightSteerMtrId,
+                CANDevices.backRightCanCoderId,
+                DriveConstants.backRightModOffset
+            )
+        };
+    }
+
+    /**
+     * Creates simulated modules for desktop simulation. The order is FL, FR, BL, BR.
+     */
+    private static SwerveModuleIO[] createSimModuleIOs() {
+        return new SwerveModuleIO[] {
+            new SwerveModuleIOSim(),
+            new SwerveModuleIOSim(),
+            new SwerveModuleIOSim(),
+            new SwerveModuleIOSim()
+        };
+    }
+
+    /**
+     * Constructs a new SwerveSys on top of the given hardware layer.
+     * 
+     * @param gyroIO The GyroIO of the drive base.
+     * @param moduleIOs The SwerveModuleIO of each module. The order is FL, FR, BL, BR.
+     * @param isReplay True if the SwerveSys is driven by LogReplay. There is then no odometry thread,
+     *                 no auto configuration and nothing is recorded. Odometry is only updated by calls to updateOdometry(double).
+     */
+    public SwerveSys(GyroIO gyroIO, SwerveModuleIO[] moduleIOs, boolean isReplay) {
+        this.gyroIO = gyroIO;
+
+        frontLeftMod = new SwerveModule(moduleIOs[0]);
+        frontRightMod = new SwerveModule(moduleIOs[1]);
+        backLeftMod = new SwerveModule(moduleIOs[2]);
+        backRightMod = new SwerveModule(moduleIOs[3]);
+
+        gyroIO.registerSignals(signals);
+        frontLeftMod.registerSignals(signals);
+        frontRightMod.registerSignals(signals);
+        backLeftMod.registerSignals(signals);
+        backRightMod.registerSignals(signals);
+        signals.refresh();
+
         // Resets the measured distance driven for each module
         frontLeftMod.resetDriveDistance();
         frontRightMod.resetDriveDistance();
         backLeftMod.resetDriveDistance();
         backRightMod.resetDriveDistance();
+
+        poseEstimator = 
+            new LatencyCompensatedPoseEstimator(
+                DriveConstants.kinematics,
+                getGyroAngle(),
+                sampleModulePositions(),
+                new Pose2d(),
+                DriveConstants.odometryXYStdDevMeters,
+                DriveConstants.odometryThetaStdDevRad,
+                (int)Math.ceil(DriveConstants.poseHistorySec * DriveConstants.odometryFrequencyHz));
         
+        if(isReplay) {
+            odometryLog = null;
+            resetLog = null;
+        }
+        else {
+            odometryLog = new DoubleArrayLogEntry(DataLogManager.getLog(), LogReplay.odometryEntry);
+            resetLog = new DoubleArrayLogEntry(DataLogManager.getLog(), LogReplay.resetEntry);
+        }
+
+        // Logged like any other reset, so the replay starts from the gyro angle the robot booted with.
         resetPose();
 
+        if(isReplay) {
+            odometryNotifier = null;
+            return;
+        }
+
         System.out.println(frontLeftMod.getSteerEncAngle());
         System.out.println(frontRightMod.getSteerEncAngle());
         System.out.println(backLeftMod.getSteerEncAngle());
@@ -179,25 +288,36 @@ public class SwerveSys extends SubsystemBase {
             },
             this // Reference to this subsystem to set requirements
     );
+
+        telemetry.addStructArray("MeasuredStates", SwerveModuleState.struct, this::getModuleStates, TelemetryConstants.drivePublishPeriodSec);
+        telemetry.addStructArray("DesiredStates", SwerveModuleState.struct, this::getDesiredModuleStates, TelemetryConstants.drivePublishPeriodSec);
+        telemetry.addStruct("Pose", Pose2d.struct, this::getPose, TelemetryConstants.drivePublishPeriodSec);
+        telemetry.addStruct("BlueSidePose", Pose2d.struct, this::getBlueSidePose, TelemetryConstants.drivePublishPeriodSec);
+        telemetry.addStruct("ChassisSpeeds", ChassisSpeeds.struct, this::getChassisSpeeds, TelemetryConstants.drivePublishPeriodSec);
+        telemetry.addStructArray("CanCoderAngles", Rotation2d.struct, this::getCanCoderAngles, TelemetryConstants.calibrationPublishPeriodSec);
+
+        odometryNotifier = new Notifier(() -> updateOdometry(Timer.getFPGATimestamp()));
+        odometryNotifier.setName("SwerveOdometry");
+        odometryNotifier.startPeriodic(1.0 / DriveConstants.odometryFrequencyHz);
     }
 
     // This method will be called once per scheduler run
     @Override
     public void periodic() {
-        // Updates the odometry every 20ms
-        poseEstimator.update(imu.getRotation2d(), getModulePositions());
-
-        /*for(LimelightPoseEstimator limelightPoseEstimator : limelightPoseEstimators) {
-            Optional<Pose2d> limelightPose = limelightPoseEstimator.getRobotPose();
-            if(limelightPose.isPresent()) {
-                poseEstimator.addVisionMeasurement(limelightPose.get(), limelightPoseEstimator.getCaptureTimestamp());
-                //System.out.println(limelightPose.get());
-                //System.out.println("tx is: " + tx.getDouble(0));
-                //System.out.println("ty is: " + ty.getDouble(0));
-                //System.out.println("ta is: " + ta.getDouble(0.20)); 
-                //System.out.println("Hello World");
-            }
-        }*/
+        periodicProfile.start();
+
+        // Captures the module sensors once so every getter this loop reads the same values.
+        frontLeftMod.updateInputs();
+        frontRightMod.updateInputs();
+        backLeftMod.updateInputs();
+        backRightMod.updateInputs();
+
+        // Odometry is updated by the odometry thread, see updateOdometry().
+
+        isRedAlliance = DriverStation.getAlliance().isPresent() && DriverStation.getAlliance().get() == Alliance.Red;
+
+        // Vision measurements are added by VisionSys as frames arrive, see addVisionMeasurement().
+
     //read values periodically
     double x = tx.getDouble(0.0);
     double y = ty.getDouble(0.0);
@@ -206,8 +326,145 @@ public class SwerveSys extends SubsystemBase {
     SmartDashboard.putNumber("LimelightX", x);
     SmartDashboard.putNumber("LimelightY", y);
     SmartDashboard.putNumber("LimelightArea", area);
+
+        telemetry.update(Timer.getFPGATimestamp());
+
+        periodicProfile.stop();
     }
     
+    @Override
+    public void simulationPeriodic() {
+        // The modules step themselves in their own simulationPeriodic(). This moves the simulated robot by what they did.
+        SwerveModulePosition[] modulePositions = sampleModulePositions();
+        if(lastSimModulePositions != null) {
+            Twist2d twist = DriveConstants.kinematics.toTwist2d(lastSimModulePositions, modulePositions);
+            simulatedPose = simulatedPose.exp(twist);
+
+            if(gyroIO instanceof GyroIOSim gyroSim) {
+                gyroSim.addYawRad(twist.dtheta);
+            }
+        }
+        lastSimModulePositions = modulePositions;
+    }
+
+    /**
+     * Returns where the simulated robot really is, as opposed to the estimate. Only meaningful in simulation.
+     * 
+     * @return The simulated pose.
+     */
+    public Pose2d getSimulatedPose() {
+        return simulatedPose;
+    }
+
+    /**
+     * Samples the gyro and module encoders and updates the pose estimator with the sample time.
+     * 
+     * <p>Called by the odometry thread, so it must not touch anything the main loop owns without odometryLock.
+     * LogReplay calls it directly with the logged sample time.
+     * 
+     * @param timestampSec The FPGA time of the sample in seconds.
+     */
+    public void updateOdometry(double timestampSec) {
+        signals.refresh();
+
+        Rotation2d gyroAngle = getGyroAngle();
+        SwerveModulePosition[] modulePositions = sampleModulePositions();
+
+        if(odometryLog != null) {
+            LogReplay.packOdometrySample(timestampSec, gyroAngle, modulePositions, odometrySample);
+            odometryLog.append(odometrySample, (long)(timestampSec * 1e6));
+        }
+
+        odometryLock.lock();
+        try {
+            poseEstimator.updateWithTime(timestampSec, gyroAngle, modulePositions);
+            latestPose = poseEstimator.getEstimatedPosition();
+        }
+        finally {
+            odometryLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a vision pose measurement to the pose estimator.
+     * 
+     * <p>Safe to call from any thread. VisionSys calls it from the NetworkTables listener thread.
+     * 
+     * @param visionPose The robot pose measured by vision.
+     * @param timestampSec The FPGA time the measurement was captured in seconds.
+     */
+    public void addVisionMeasurement(Pose2d visionPose, double timestampSec) {
+        addVisionMeasurement(visionPose, timestampSec, VisionConstants.xyStdDevMeters, VisionConstants.thetaStdDevRad);
+    }
+
+    /**
+     * Adds a vision pose measurement to the pose estimator with its own standard deviations.
+     * 
+     * <p>Safe to call from any thread. Measurements captured before DriveConstants.poseHistorySec ago are ignored.
+     * 
+     * @param visionPose The robot pose measured by vision.
+     * @param timestampSec The FPGA time the measurement was captured in seconds.
+     * @param xyStdDevMeters The standard deviation of the x and y of the measurement in meters.
+     * @param thetaStdDevRad The standard deviation of the heading of the measurement in radians.
+     * 
+     * @return False if the measurement was too old and was ignored.
+     */
+    public boolean addVisionMeasurement(Pose2d visionPose, double timestampSec, double xyStdDevMeters, double thetaStdDevRad) {
+        odometryLock.lock();
+        try {
+            boolean isAdded = poseEstimator.addVisionMeasurement(visionPose, timestampSec, xyStdDevMeters, thetaStdDevRad);
+            latestPose = poseEstimator.getEstimatedPosition();
+            return isAdded;
+        }
+        finally {
+            odometryLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated pose at a past time, such as the capture time of a camera frame.
+     * 
+     * <p>Safe to call from any thread.
+     * 
+     * @param timestampSec The FPGA time in seconds.
+     * 
+     * @return The estimated pose, or empty if the time is older than the pose history.
+     */
+    public Optional<Pose2d> getPoseAt(double timestampSec) {
+        odometryLock.lock();
+        try {
+            return Optional.ofNullable(poseEstimator.getEstimatedPositionAt(timestampSec));
+        }
+        finally {
+            odometryLock.unlock();
+        }
+    }
+
+    /**
+     * Resets the pose estimator to the given pose using the current gyro angle and module positions.
+     * 
+     * @param pose The pose to reset to.
+     */
+    private void resetEstimator(Pose2d pose) {
+        odometryLock.lock();
+        try {
+            Rotation2d gyroAngle = getGyroAngle();
+            SwerveModulePosition[] modulePositions = sampleModulePositions();
+
+            // Stamped with the FPGA time like the odometry samples, so LogReplay can order the reset among them.
+            if(resetLog != null) {
+                double timestampSec = Timer.getFPGATimestamp();
+                resetLog.append(LogReplay.packPoseReset(timestampSec, gyroAngle, modulePositions, pose), (long)(timestampSec * 1e6));
+            }
+
+            poseEstimator.resetPosition(gyroAngle, modulePositions, pose);
+            latestPose = poseEstimator.getEstimatedPosition();
+        }
+        finally {
+            odometryLock.unlock();
+        }
+    }
+
     /**
      * Inputs drive values into the swerve drive base.
      * 
@@ -217,11 +474,12 @@ public class SwerveSys extends SubsystemBase {
      * @param isFieldOriented whether driving is field- or robot-oriented.
      */
     public void drive(double driveXMetersPerSec, double driveYMetersPerSec, double rotationRadPerSec, boolean isFieldOriented) {
-        if(omegaOverrideRadPerSec.isPresent()) {
+        boolean isOmegaOverridden = omegaOverrideRadPerSec.isPresent();
+        if(isOmegaOverridden) {
             rotationRadPerSec = omegaOverrideRadPerSec.get();
         }
 
-        if(DriverStation.getAlliance().isPresent() && DriverStation.getAlliance().get() == Alliance.Red) {
+        if(isRedAlliance) {
             driveXMetersPerSec *= -1;
             driveYMetersPerSec *= -1;
         }
@@ -229,36 +487,37 @@ public class SwerveSys extends SubsystemBase {
         if(driveXMetersPerSec != 0.0 || driveYMetersPerSec != 0.0 || rotationRadPerSec != 0.0) isLocked = false;
         
         if(isLocked) {
-            setModuleStates(new SwerveModuleState[] {
-                new SwerveModuleState(0.0, new Rotation2d(0.25 * Math.PI)),
-                new SwerveModuleState(0.0, new Rotation2d(-0.25 * Math.PI)),
-                new SwerveModuleState(0.0, new Rotation2d(-0.25 * Math.PI)),
-                new SwerveModuleState(0.0, new Rotation2d(0.25 * Math.PI))
-            });
+            moduleStates.set(0, 0.0, 0.25 * Math.PI);
+            moduleStates.set(1, 0.0, -0.25 * Math.PI);
+            moduleStates.set(2, 0.0, -0.25 * Math.PI);
+            moduleStates.set(3, 0.0, 0.25 * Math.PI);
         }
         else {
             // Reduces the speed of the drive base for "turtle" or "sprint" modes.
             driveXMetersPerSec *= speedFactor;
             driveYMetersPerSec *= speedFactor;
-            rotationRadPerSec *= speedFactor;
 
-            // Represents the overall state of the drive base.
-            ChassisSpeeds speeds =
-                isFieldOriented
-                    ? ChassisSpeeds.fromFieldRelativeSpeeds(
-                        driveXMetersPerSec, driveYMetersPerSec, rotationRadPerSec, getHeading())
-                    : new ChassisSpeeds(driveXMetersPerSec, driveYMetersPerSec, rotationRadPerSec);
+            // The aiming commands compute the turn rate they need, so the override is not scaled.
+            if(!isOmegaOverridden) rotationRadPerSec *= speedFactor;
 
-            ChassisSpeeds discreteSpeeds = ChassisSpeeds.discretize(speeds, 0.02);
+            // Rotates field-oriented inputs into the robot's frame, as in ChassisSpeeds.fromFieldRelativeSpeeds().
+            if(isFieldOriented) {
+                Rotation2d heading = getHeading();
+                double robotXMetersPerSec = driveXMetersPerSec * heading.getCos() + driveYMetersPerSec * heading.getSin();
+                double robotYMetersPerSec = -driveXMetersPerSec * heading.getSin() + driveYMetersPerSec * heading.getCos();
 
-            // Uses kinematics (wheel placements) to convert overall robot state to array of individual module states.
-            SwerveModuleState[] states = DriveConstants.kinematics.toSwerveModuleStates(discreteSpeeds);
+                driveXMetersPerSec = robotXMetersPerSec;
+                driveYMetersPerSec = robotYMetersPerSec;
+            }
+
+            // Uses kinematics (wheel placements) to convert overall robot state to individual module states.
+            moduleStates.setChassisSpeeds(driveXMetersPerSec, driveYMetersPerSec, rotationRadPerSec, 0.02);
             
             // Makes sure the wheels don't try to spin faster than the maximum speed possible
-            SwerveDriveKinematics.desaturateWheelSpeeds(states, DriveConstants.maxModuleSpeedMetersPerSec);
-
-            setModuleStates(states);
+            moduleStates.desaturate(DriveConstants.maxModuleSpeedMetersPerSec);
         }
+
+        setModuleStates(moduleStates);
     }
 
     public void runCharacterizationVolts(double volts) {
@@ -300,6 +559,18 @@ public class SwerveSys extends SubsystemBase {
         backRightMod.setDesiredState(moduleStates[3], false);
     }
 
+    /**
+     * Sets the desired state for each swerve module from a ModuleStateBuffer.
+     * 
+     * @param moduleStates The module states to set. The order is FL, FR, BL, BR.
+     */
+    private void setModuleStates(ModuleStateBuffer moduleStates) {
+        frontLeftMod.setDesiredState(moduleStates.getSpeedMetersPerSec(0), moduleStates.getAngleRad(0), false);
+        frontRightMod.setDesiredState(moduleStates.getSpeedMetersPerSec(1), moduleStates.getAngleRad(1), false);
+        backLeftMod.setDesiredState(moduleStates.getSpeedMetersPerSec(2), moduleStates.getAngleRad(2), false);
+        backRightMod.setDesiredState(moduleStates.getSpeedMetersPerSec(3), moduleStates.getAngleRad(3), false);
+    }
+
     /**
      * Returns the current motion of the drive base as a ChassisSpeeds.
      * 
@@ -315,7 +586,12 @@ public class SwerveSys extends SubsystemBase {
      * @param chassisSpeeds The desired ChassisSpeeds.
      */
     public void setChassisSpeeds(ChassisSpeeds chassisSpeeds) {
-        setModuleStates(DriveConstants.kinematics.toSwerveModuleStates(chassisSpeeds));
+        moduleStates.setChassisSpeeds(
+            chassisSpeeds.vxMetersPerSecond,
+            chassisSpeeds.vyMetersPerSecond,
+            chassisSpeeds.omegaRadiansPerSecond);
+
+        setModuleStates(moduleStates);
     }
 
     public Translation2d getFieldRelativeVelocity() {
@@ -337,6 +613,20 @@ public class SwerveSys extends SubsystemBase {
         };
     }
 
+    /**
+     * Returns an array of the module states last commanded by drive() or setChassisSpeeds(),
+     * before each module optimizes them. The order is FL, FR, BL, BR.
+     * 
+     * @return An array of SwerveModuleState.
+     */
+    public SwerveModuleState[] getDesiredModuleStates() {
+        SwerveModuleState[] states = new SwerveModuleState[moduleStates.getModuleCount()];
+        for(int i = 0; i < states.length; i++) {
+            states[i] = new SwerveModuleState(moduleStates.getSpeedMetersPerSec(i), new Rotation2d(moduleStates.getAngleRad(i)));
+        }
+        return states;
+    }
+
     /**
      * Returns an array of CANcoder angles of the modules. The order is FL, FR, BL, BR.
      * 
@@ -352,7 +642,7 @@ public class SwerveSys extends SubsystemBase {
     }
 
     /**
-     * Returns an array of module positions.
+     * Returns an array of module positions from the inputs cached this loop.
      * 
      * @return An array of SwerveModulePosition.
      */
@@ -366,10 +656,26 @@ public class SwerveSys extends SubsystemBase {
     }
 
     /**
+     * Returns an array of module positions read directly from the encoders. Used by odometry.
+     * 
+     * @return An array of SwerveModulePosition.
+     */
+    private SwerveModulePosition[] sampleModulePositions() {
+        return new SwerveModulePosition[] {
+            frontLeftMod.samplePosition(),
+            frontRightMod.samplePosition(),
+            backLeftMod.samplePosition(),
+            backRightMod.samplePosition()
+        };
+    }
+
+    /**
+     * Returns the latest estimate from the odometry thread. This never blocks.
+     * 
      * @return The current estimated position of the robot.
      */
     public Pose2d getPose() {
-        return poseEstimator.getEstimatedPosition();
+        return latestPose;
     }
 
     /**
@@ -387,7 +693,7 @@ public class SwerveSys extends SubsystemBase {
     }
 
     public void setHeading(Rotation2d heading) {
-        imu.setYaw(MathUtil.inputModulus(heading.getDegrees(), 0.0, 360.0));
+        gyroIO.setYawDeg(MathUtil.inputModulus(heading.getDegrees(), 0.0, 360.0));
     }
     
     /**
@@ -403,11 +709,14 @@ public class SwerveSys extends SubsystemBase {
      * @param pose The pose to set the robot to.
      */
     public void setPose(Pose2d pose) {
-        poseEstimator.resetPosition(imu.getRotation2d(), getModulePositions(), pose);
+        resetEstimator(pose);
+
+        // Places the simulated robot at the pose, as when a match starts with the robot placed on the field.
+        simulatedPose = pose;
     }
 
     public void setTranslation(Translation2d translation) {
-        poseEstimator.resetPosition(imu.getRotation2d(), getModulePositions(), new Pose2d(translation, imu.getRotation2d()));
+        resetEstimator(new Pose2d(translation, getGyroAngle()));
     }
 
     /**
@@ -419,6 +728,9 @@ public class SwerveSys extends SubsystemBase {
         frontRightMod.resetDriveDistance();
         backLeftMod.resetDriveDistance();
         backRightMod.resetDriveDistance();
+
+        // The jump in drive positions is not motion of the simulated robot.
+        lastSimModulePositions = null;
     }
 
     /**
@@ -498,6 +810,15 @@ public class SwerveSys extends SubsystemBase {
         return getPose().getRotation();
     }
 
+    /**
+     * Returns the yaw of the gyro, extrapolated to the current time with the yaw rate.
+     * 
+     * @return The gyro yaw as a Rotation2d.
+     */
+    public Rotation2d getGyroAngle() {
+        return Rotation2d.fromDegrees(gyroIO.getYawDeg());
+    }
+
     /**
      * Returns the current pitch of the robot from the gyro.
      * 
@@ -505,7 +826,7 @@ public class SwerveSys extends SubsystemBase {
      */
     public Rotation2d getPitch() {
         // IMU is turned 90 degrees, so pitch and roll are flipped.
-        return Rotation2d.fromDegrees(imu.getRoll().getValueAsDouble());
+        return Rotation2d.fromDegrees(gyroIO.getRollDeg());
     }
 
     /**
@@ -515,16 +836,14 @@ public class SwerveSys extends SubsystemBase {
      */
     public Rotation2d getRollDegrees() {
         // IMU is turned 90 degrees, so pitch and roll are flipped.
-        return Rotation2d.fromDegrees(imu.getPitch().getValueAsDouble());
+        return Rotation2d.fromDegrees(gyroIO.getPitchDeg());
     }
 
     /**
      * Sets the gyro heading to zero.
      */
     public void resetHeading() {
-        poseEstimator.resetPosition(
-            imu.getRotation2d(),
-            getModulePositions(),
+        resetEstimator(
             new Pose2d(
                 getPose().getTranslation(),
                 DriverStation.getAlliance().isPresent() && DriverStation.getAlliance().get() == Alliance.Red ? Rotation2d.fromDegrees(180) : Rotation2d.fromDegrees(0)));
@@ -0,0 +1,32 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.util.telemetry.TelemetryPublisher;
+
+public class TelemetrySys extends SubsystemBase {
+
+    private final TelemetryPublisher publisher =
+        new TelemetryPublisher(NetworkTableInstance.getDefault().getTable("SmartDashboard"));
+
+    /**
+     * Constructs a new TelemetrySys.
+     * 
+     * <p>TelemetrySys publishes driver-facing values to the dashboard. For uniformity, any information
+     * sent to Shuffleboard/SmartDashboard should be added here. Drivetrain poses and module states are
+     * published as structs by SwerveSys.
+     * 
+     * @param swerveSys The SwerveSys to report on.
+     */
+    public TelemetrySys(SwerveSys swerveSys) {
+        publisher.addDouble("speed m/s", swerveSys::getAverageDriveVelocityMetersPerSec, TelemetryConstants.drivePublishPeriodSec);
+        publisher.addDouble("drive voltage", swerveSys::getAverageDriveVoltage, TelemetryConstants.drivePublishPeriodSec);
+    }
+
+    @Override
+    public void periodic() {
+        publisher.update(Timer.getFPGATimestamp());
+    }
+}
@@ -0,0 +1,144 @@
+package frc.robot.subsystems;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.limelight.LimelightHttpClient;
+import frc.robot.util.limelight.LimelightIO;
+import frc.robot.util.limelight.LimelightIO.LimelightInputs;
+import frc.robot.util.limelight.LimelightIONetworkTables;
+import frc.robot.util.limelight.LimelightPoseEstimator;
+import frc.robot.util.telemetry.TelemetryPublisher;
+
+public class VisionSys extends SubsystemBase {
+
+    private final SwerveSys swerveSys;
+
+    private final LimelightPoseEstimator limelightPoseEstimator = new LimelightPoseEstimator();
+
+    // Written from the frame threads and read by periodic().
+    private final AtomicInteger acceptedFrameCount = new AtomicInteger();
+    private final AtomicInteger rejectedFrameCount = new AtomicInteger();
+
+    private final TelemetryPublisher telemetry =
+        new TelemetryPublisher(NetworkTableInstance.getDefault().getTable("VisionSys"));
+
+    /**
+     * Constructs a new VisionSys listening to the Limelights in VisionConstants.
+     * 
+     * @param swerveSys The SwerveSys to send vision measurements to.
+     */
+    public VisionSys(SwerveSys swerveSys) {
+        this(
+            swerveSys,
+            Arrays.stream(getLimelightNames())
+                .map(LimelightIONetworkTables::new)
+                .toArray(LimelightIO[]::new)
+        );
+    }
+
+    /**
+     * Returns the names of the Limelights VisionSys listens to by default.
+     * 
+     * <p>In simulation this includes the extra cameras in VisionConstants.simExtraCameraCount.
+     * 
+     * @return The names of the Limelights.
+     */
+    public static String[] getLimelightNames() {
+        Stream<String> limelightNames = Stream.of(VisionConstants.frontLimelightName, VisionConstants.backLimelightName);
+
+        if(RobotBase.isSimulation()) {
+            limelightNames = Stream.concat(
+                limelightNames,
+                IntStream.range(0, VisionConstants.simExtraCameraCount).mapToObj(i -> "limelight-sim" + i));
+        }
+
+        // The front and back names may point at the same camera, which should only be listened to once.
+        return limelightNames.distinct().toArray(String[]::new);
+    }
+
+    /**
+     * Constructs a new VisionSys.
+     * 
+     * <p>VisionSys feeds every frame from each Limelight into the SwerveSys pose estimator as it arrives,
+     * timestamped with when the frame was captured. Frames are pushed by the LimelightIO, so the main loop
+     * does no NetworkTables polling and no frames are dropped between loops.
+     * 
+     * @param swerveSys The SwerveSys to send vision measurements to.
+     * @param limelightIOs The Limelights to listen to.
+     */
+    public VisionSys(SwerveSys swerveSys, LimelightIO... limelightIOs) {
+        this.swerveSys = swerveSys;
+
+        for(LimelightIO limelightIO : limelightIOs) {
+            limelightIO.start(this::addFrame);
+        }
+
+        telemetry.addDouble("AcceptedFrames", acceptedFrameCount::get, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("RejectedFrames", rejectedFrameCount::get, TelemetryConstants.calibrationPublishPeriodSec);
+
+        LimelightHttpClient httpClient = LimelightHttpClient.getInstance();
+        telemetry.addDouble("Http/Requests", httpClient::getRequestCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/Deduplicated", httpClient::getDeduplicatedCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/Rejected", httpClient::getRejectedCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/Succeeded", httpClient::getSucceededCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/Failed", httpClient::getFailedCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/Queued", httpClient::getQueuedCount, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("Http/AverageLatencyMs", httpClient::getAverageLatencyMs, TelemetryConstants.calibrationPublishPeriodSec);
+    }
+
+    /**
+     * Adds a frame to the pose estimator if it contains a usable pose, weighted by how much it can be trusted.
+     * 
+     * <p>Called on the thread of the LimelightIO that received the frame.
+     * 
+     * @param frame The frame to add.
+     */
+    private void addFrame(LimelightInputs frame) {
+        Optional<Pose2d> limelightPose = limelightPoseEstimator.getRobotPose(frame, swerveSys.getPose());
+        // Frames older than the odometry history are dropped by the estimator.
+        if(limelightPose.isPresent() && swerveSys.addVisionMeasurement(
+                limelightPose.get(),
+                limelightPoseEstimator.getCaptureTimestamp(frame),
+                limelightPoseEstimator.getXYStdDevMeters(frame),
+                limelightPoseEstimator.getThetaStdDevRad(frame))) {
+            acceptedFrameCount.incrementAndGet();
+        }
+        else {
+            rejectedFrameCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of frames added to the pose estimator.
+     * 
+     * @return The number of accepted frames.
+     */
+    public int getAcceptedFrameCount() {
+        return acceptedFrameCount.get();
+    }
+
+    /**
+     * Returns the number of frames without a usable pose.
+     * 
+     * @return The number of rejected frames.
+     */
+    public int getRejectedFrameCount() {
+        return rejectedFrameCount.get();
+    }
+
+    @Override
+    public void periodic() {
+        telemetry.update(Timer.getFPGATimestamp());
+    }
+}
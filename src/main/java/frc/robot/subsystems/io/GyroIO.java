@@ -0,0 +1,44 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.util.phoenix.SignalBatch;
+
+/**
+ * The hardware layer of the drivetrain gyro.
+ */
+public interface GyroIO {
+
+    /**
+     * Returns the yaw of the gyro. Counterclockwise is positive.
+     * 
+     * @return The yaw in degrees.
+     */
+    public double getYawDeg();
+
+    /**
+     * Returns the roll of the gyro.
+     * 
+     * @return The roll in degrees.
+     */
+    public double getRollDeg();
+
+    /**
+     * Returns the pitch of the gyro.
+     * 
+     * @return The pitch in degrees.
+     */
+    public double getPitchDeg();
+
+    /**
+     * Sets the yaw of the gyro.
+     * 
+     * @param yawDeg The new yaw in degrees.
+     */
+    public void setYawDeg(double yawDeg);
+
+    /**
+     * Adds any Phoenix signals the gyro reads to a signal batch.
+     * 
+     * @param signals The SignalBatch to register with.
+     */
+    public default void registerSignals(SignalBatch signals) {}
+}
@@ -0,0 +1,69 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.Pigeon2;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.util.phoenix.SignalBatch;
+
+/**
+ * GyroIO for a Pigeon2.
+ * 
+ * <p>The signals are refreshed by the SignalBatch passed to registerSignals().
+ */
+public class GyroIOPigeon2 implements GyroIO {
+
+    private final Pigeon2 imu;
+
+    private final StatusSignal<Angle> imuYaw;
+    private final StatusSignal<AngularVelocity> imuYawRate;
+    private final StatusSignal<Angle> imuRoll;
+    private final StatusSignal<Angle> imuPitch;
+
+    /**
+     * Constructs a new GyroIOPigeon2.
+     * 
+     * @param imuId CAN ID of the Pigeon2.
+     */
+    public GyroIOPigeon2(int imuId) {
+        imu = new Pigeon2(imuId);
+
+        imuYaw = imu.getYaw();
+        imuYawRate = imu.getAngularVelocityZWorld();
+        imuRoll = imu.getRoll();
+        imuPitch = imu.getPitch();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The yaw is extrapolated to the current time with the yaw rate.
+     */
+    @Override
+    public double getYawDeg() {
+        return SignalBatch.getLatencyCompensatedValue(imuYaw, imuYawRate);
+    }
+
+    @Override
+    public double getRollDeg() {
+        return imuRoll.getValueAsDouble();
+    }
+
+    @Override
+    public double getPitchDeg() {
+        return imuPitch.getValueAsDouble();
+    }
+
+    @Override
+    public void setYawDeg(double yawDeg) {
+        imu.setYaw(yawDeg);
+    }
+
+    @Override
+    public void registerSignals(SignalBatch signals) {
+        signals.register(DriveConstants.odometryFrequencyHz, imuYaw, imuYawRate);
+        signals.register(DriveConstants.statusSignalFrequencyHz, imuRoll, imuPitch);
+    }
+}
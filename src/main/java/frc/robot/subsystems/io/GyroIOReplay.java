@@ -0,0 +1,36 @@
+package frc.robot.subsystems.io;
+
+/**
+ * GyroIO that returns yaw values read back from a log.
+ */
+public class GyroIOReplay implements GyroIO {
+
+    private double yawDeg = 0.0;
+
+    /**
+     * Sets the yaw returned until the next logged sample.
+     * 
+     * @param yawDeg The logged yaw in degrees.
+     */
+    public void setLoggedYawDeg(double yawDeg) {
+        this.yawDeg = yawDeg;
+    }
+
+    @Override
+    public double getYawDeg() {
+        return yawDeg;
+    }
+
+    @Override
+    public double getRollDeg() {
+        return 0.0;
+    }
+
+    @Override
+    public double getPitchDeg() {
+        return 0.0;
+    }
+
+    @Override
+    public void setYawDeg(double yawDeg) {}
+}
@@ -0,0 +1,39 @@
+package frc.robot.subsystems.io;
+
+/**
+ * GyroIO that simulates a Pigeon2 by integrating the turn rate of the simulated drivetrain.
+ */
+public class GyroIOSim implements GyroIO {
+
+    // Read by the odometry thread while the main loop updates it.
+    private volatile double yawDeg = 0.0;
+
+    /**
+     * Turns the simulated gyro.
+     * 
+     * @param deltaYawRad The change in yaw since the last update in radians. Counterclockwise is positive.
+     */
+    public void addYawRad(double deltaYawRad) {
+        yawDeg += Math.toDegrees(deltaYawRad);
+    }
+
+    @Override
+    public double getYawDeg() {
+        return yawDeg;
+    }
+
+    @Override
+    public double getRollDeg() {
+        return 0.0;
+    }
+
+    @Override
+    public double getPitchDeg() {
+        return 0.0;
+    }
+
+    @Override
+    public void setYawDeg(double yawDeg) {
+        this.yawDeg = yawDeg;
+    }
+}
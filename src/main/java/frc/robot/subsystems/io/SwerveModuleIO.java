@@ -0,0 +1,97 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.util.phoenix.SignalBatch;
+
+/**
+ * The hardware layer of a swerve module.
+ * 
+ * <p>SwerveModule only talks to its hardware through this interface, so the same module logic can run
+ * against the real motor controllers or against values read back from a log.
+ */
+public interface SwerveModuleIO {
+
+    /**
+     * Sensor values read from a swerve module once per loop.
+     */
+    public static class SwerveModuleInputs {
+        public double drivePositionMeters = 0.0;
+        public double driveVelocityMetersPerSec = 0.0;
+        public double steerAngleRad = 0.0;
+        public double driveAppliedOutput = 0.0;
+    }
+
+    /**
+     * Reads the module sensors into inputs.
+     * 
+     * @param inputs The inputs to update.
+     */
+    public void updateInputs(SwerveModuleInputs inputs);
+
+    /**
+     * Reads the drive position directly. Used by odometry, which samples faster than the main loop.
+     * 
+     * @return The distance driven by the module in meters.
+     */
+    public double getDrivePositionMeters();
+
+    /**
+     * Reads the steer angle directly. Used by odometry, which samples faster than the main loop.
+     * 
+     * @return The angle of the module in radians. This is continuous and not wrapped.
+     */
+    public double getSteerAngleRad();
+
+    /**
+     * Returns the absolute angle of the CANCoder. This does not account for offset.
+     * 
+     * @return The CANCoder angle in radians.
+     */
+    public double getCanCoderAngleRad();
+
+    /**
+     * Sets the drive motor output.
+     * 
+     * @param output The output from -1 to 1.
+     */
+    public void setDriveOutput(double output);
+
+    /**
+     * Sets the drive motor voltage.
+     * 
+     * @param volts The voltage to apply.
+     */
+    public void setDriveVoltage(double volts);
+
+    /**
+     * Runs the drive motor in closed-loop position control.
+     * 
+     * @param positionMeters The target drive position in meters.
+     */
+    public void setDrivePositionSetpoint(double positionMeters);
+
+    /**
+     * Runs the steer motor in closed-loop position control.
+     * 
+     * @param angleRad The target steer encoder position in radians.
+     */
+    public void setSteerAngleSetpoint(double angleRad);
+
+    /**
+     * Resets the drive encoder position to zero.
+     */
+    public void resetDrivePosition();
+
+    /**
+     * Adds any Phoenix signals this module reads to a signal batch.
+     * 
+     * @param signals The SignalBatch to register with.
+     */
+    public default void registerSignals(SignalBatch signals) {}
+
+    /**
+     * Steps the simulated hardware forward. Real hardware ignores this.
+     * 
+     * @param dtSec The time to step in seconds.
+     */
+    public default void simulate(double dtSec) {}
+}
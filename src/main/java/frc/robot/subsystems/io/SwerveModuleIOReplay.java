@@ -0,0 +1,57 @@
+package frc.robot.subsystems.io;
+
+/**
+ * SwerveModuleIO that returns module positions read back from a log. Outputs are ignored.
+ */
+public class SwerveModuleIOReplay implements SwerveModuleIO {
+
+    private double drivePositionMeters = 0.0;
+    private double steerAngleRad = 0.0;
+
+    /**
+     * Sets the position returned until the next logged sample.
+     * 
+     * @param drivePositionMeters The logged drive position in meters.
+     * @param steerAngleRad The logged steer angle in radians.
+     */
+    public void setLoggedPosition(double drivePositionMeters, double steerAngleRad) {
+        this.drivePositionMeters = drivePositionMeters;
+        this.steerAngleRad = steerAngleRad;
+    }
+
+    @Override
+    public void updateInputs(SwerveModuleInputs inputs) {
+        inputs.drivePositionMeters = drivePositionMeters;
+        inputs.steerAngleRad = steerAngleRad;
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return drivePositionMeters;
+    }
+
+    @Override
+    public double getSteerAngleRad() {
+        return steerAngleRad;
+    }
+
+    @Override
+    public double getCanCoderAngleRad() {
+        return 0.0;
+    }
+
+    @Override
+    public void setDriveOutput(double output) {}
+
+    @Override
+    public void setDriveVoltage(double volts) {}
+
+    @Override
+    public void setDrivePositionSetpoint(double positionMeters) {}
+
+    @Override
+    public void setSteerAngleSetpoint(double angleRad) {}
+
+    @Override
+    public void resetDrivePosition() {}
+}
@@ -0,0 +1,155 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * SwerveModuleIO that simulates a module with a NEO Vortex on the drive and steer.
+ * 
+ * <p>The motors are stepped by simulate(), which SwerveModule calls from simulationPeriodic(). The Spark Flex closed loops
+ * are run here with the same gains, converted from duty cycle to volts. Static friction on the drive comes from
+ * DriveConstants.driveFF.
+ * 
+ * <p>Sensor values are kept in volatile fields so the odometry thread can read them while the main loop steps the simulation.
+ */
+public class SwerveModuleIOSim implements SwerveModuleIO {
+
+    private final DCMotorSim driveSim;
+    private final DCMotorSim steerSim;
+
+    // The Spark Flex position loops. Its gains are in duty cycle, and its derivative is per millisecond.
+    private final PIDController driveController =
+        new PIDController(DriveConstants.drivekP * 12.0, 0.0, DriveConstants.drivekD * 12.0 * 1e-3);
+    private final PIDController steerController =
+        new PIDController(DriveConstants.steerkP * 12.0, 0.0, DriveConstants.steerkD * 12.0 * 1e-3);
+
+    private boolean isDriveClosedLoop = false;
+    private boolean isSteerClosedLoop = false;
+
+    private double driveOutput = 0.0;
+    private double steerVolts = 0.0;
+
+    // The simulated drive position when the drive encoder was last reset.
+    private double drivePositionOffsetMeters = 0.0;
+
+    private volatile double drivePositionMeters = 0.0;
+    private volatile double driveVelocityMetersPerSec = 0.0;
+    private volatile double steerAngleRad = 0.0;
+
+    /**
+     * Constructs a new SwerveModuleIOSim.
+     * 
+     * @param initialSteerAngleRad The angle the module starts at, like a module left crooked when the robot was switched on.
+     */
+    public SwerveModuleIOSim(double initialSteerAngleRad) {
+        DCMotor driveMotor = DCMotor.getNeoVortex(1);
+        DCMotor steerMotor = DCMotor.getNeoVortex(1);
+
+        driveSim = new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(
+                driveMotor, DriveConstants.simDriveMoiKgMetersSq, 1.0 / DriveConstants.driveMtrGearReduction),
+            driveMotor);
+        steerSim = new DCMotorSim(
+            LinearSystemId.createDCMotorSystem(
+                steerMotor, DriveConstants.simSteerMoiKgMetersSq, 1.0 / DriveConstants.steerMtrGearReduction),
+            steerMotor);
+
+        steerSim.setState(initialSteerAngleRad, 0.0);
+        steerAngleRad = initialSteerAngleRad;
+    }
+
+    /**
+     * Constructs a new SwerveModuleIOSim with the module pointing forward.
+     */
+    public SwerveModuleIOSim() {
+        this(0.0);
+    }
+
+    @Override
+    public void simulate(double dtSec) {
+        double batteryVolts = RobotController.getBatteryVoltage();
+
+        double driveVolts;
+        if(isDriveClosedLoop) {
+            driveVolts = driveController.calculate(drivePositionMeters);
+        }
+        else {
+            driveVolts = driveOutput * batteryVolts;
+        }
+
+        // The wheel does not move until the voltage overcomes static friction.
+        double frictionVolts = DriveConstants.driveFF.getKs() * Math.signum(driveVolts);
+        driveVolts = Math.abs(driveVolts) > Math.abs(frictionVolts) ? driveVolts - frictionVolts : 0.0;
+
+        if(isSteerClosedLoop) {
+            steerVolts = steerController.calculate(steerAngleRad);
+        }
+
+        driveSim.setInputVoltage(MathUtil.clamp(driveVolts, -batteryVolts, batteryVolts));
+        steerSim.setInputVoltage(MathUtil.clamp(steerVolts, -batteryVolts, batteryVolts));
+        driveSim.update(dtSec);
+        steerSim.update(dtSec);
+
+        drivePositionMeters = driveSim.getAngularPositionRad() * DriveConstants.wheelRadiusMeters - drivePositionOffsetMeters;
+        driveVelocityMetersPerSec = driveSim.getAngularVelocityRadPerSec() * DriveConstants.wheelRadiusMeters;
+        steerAngleRad = steerSim.getAngularPositionRad();
+    }
+
+    @Override
+    public void updateInputs(SwerveModuleInputs inputs) {
+        inputs.drivePositionMeters = drivePositionMeters;
+        inputs.driveVelocityMetersPerSec = driveVelocityMetersPerSec;
+        inputs.steerAngleRad = steerAngleRad;
+        inputs.driveAppliedOutput = driveOutput;
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return drivePositionMeters;
+    }
+
+    @Override
+    public double getSteerAngleRad() {
+        return steerAngleRad;
+    }
+
+    @Override
+    public double getCanCoderAngleRad() {
+        return MathUtil.inputModulus(steerAngleRad, 0.0, 2.0 * Math.PI);
+    }
+
+    @Override
+    public void setDriveOutput(double output) {
+        isDriveClosedLoop = false;
+        driveOutput = MathUtil.clamp(output, -1.0, 1.0);
+    }
+
+    @Override
+    public void setDriveVoltage(double volts) {
+        setDriveOutput(volts / RobotController.getBatteryVoltage());
+    }
+
+    @Override
+    public void setDrivePositionSetpoint(double positionMeters) {
+        isDriveClosedLoop = true;
+        driveOutput = 0.0;
+        driveController.setSetpoint(positionMeters);
+    }
+
+    @Override
+    public void setSteerAngleSetpoint(double angleRad) {
+        isSteerClosedLoop = true;
+        steerController.setSetpoint(angleRad);
+    }
+
+    @Override
+    public void resetDrivePosition() {
+        drivePositionOffsetMeters += drivePositionMeters;
+        drivePositionMeters = 0.0;
+    }
+}
@@ -0,0 +1,156 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.revrobotics.spark.SparkFlex;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkBase.ControlType;
+import com.revrobotics.spark.SparkBase.PersistMode;
+import com.revrobotics.spark.SparkBase.ResetMode;
+import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
+import com.revrobotics.spark.config.SparkFlexConfig;
+import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.units.measure.Angle;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.util.phoenix.SignalBatch;
+
+/**
+ * SwerveModuleIO for a module with a SPARK Flex drive motor, a SPARK Flex steer motor and a CANCoder.
+ */
+public class SwerveModuleIOSparkFlex implements SwerveModuleIO {
+
+    private final SparkFlex driveMtr;
+    private final SparkFlex steerMtr;
+
+    private final RelativeEncoder driveEnc;
+    private final RelativeEncoder steerEnc;
+
+    private final CANcoder canCoder;
+
+    private final StatusSignal<Angle> canCoderPosition;
+
+    private final SparkClosedLoopController steerController;
+    private final SparkClosedLoopController driveController;
+
+    /**
+     * Constructs a new SwerveModuleIOSparkFlex.
+     * 
+     * @param driveMtrId CAN ID of the drive motor.
+     * @param steerMtrId CAN ID of the steer motor.
+     * @param canCoderId CAN ID of the CANCoder.
+     * @param offset Offset of CANCoder reading from forward.
+     */
+    public SwerveModuleIOSparkFlex(int driveMtrId, int steerMtrId, int canCoderId, Rotation2d offset) {
+
+        driveMtr = new SparkFlex(driveMtrId, MotorType.kBrushless);
+        steerMtr = new SparkFlex(steerMtrId, MotorType.kBrushless);
+
+        driveEnc = driveMtr.getEncoder();
+        steerEnc = steerMtr.getEncoder();
+
+        canCoder = new CANcoder(canCoderId);
+
+        canCoderPosition = canCoder.getAbsolutePosition();
+
+        steerController = steerMtr.getClosedLoopController();
+        driveController = driveMtr.getClosedLoopController();
+
+        SparkFlexConfig driveConfig = new SparkFlexConfig();
+        driveConfig 
+            .inverted(true)
+            .idleMode(IdleMode.kBrake);
+        driveConfig.encoder
+            .positionConversionFactor(DriveConstants.driveMetersPerEncRev)
+            .velocityConversionFactor(DriveConstants.driveMetersPerSecPerMtrRPM);
+        driveConfig.closedLoop
+            .feedbackSensor(FeedbackSensor.kPrimaryEncoder)
+            .pid(DriveConstants.drivekP, 0, DriveConstants.drivekD);
+
+
+        SparkFlexConfig steerConfig = new SparkFlexConfig();
+        steerConfig 
+            .inverted(true)
+            .idleMode(IdleMode.kCoast);
+        steerConfig.encoder
+            .positionConversionFactor(DriveConstants.steerRadiansPerEncRev);
+        steerConfig.closedLoop
+            .feedbackSensor(FeedbackSensor.kPrimaryEncoder)
+            .pid(DriveConstants.steerkP, 0, DriveConstants.steerkD);
+
+        driveMtr.configure(driveConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+        steerMtr.configure(steerConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+
+        CANcoderConfiguration ccConfig = new CANcoderConfiguration();
+        ccConfig.MagnetSensor.AbsoluteSensorDiscontinuityPoint = 0.5;
+        ccConfig.MagnetSensor.SensorDirection = SensorDirectionValue.CounterClockwise_Positive;
+        canCoder.getConfigurator().apply(ccConfig);
+
+        // Initializes the steer encoder position to the CANCoder position, accounting for offset.
+        canCoderPosition.waitForUpdate(0.25);
+        steerEnc.setPosition(getCanCoderAngleRad() - offset.getRadians());
+    }
+
+    @Override
+    public void updateInputs(SwerveModuleInputs inputs) {
+        inputs.drivePositionMeters = driveEnc.getPosition();
+        inputs.driveVelocityMetersPerSec = driveEnc.getVelocity();
+        inputs.steerAngleRad = steerEnc.getPosition();
+        inputs.driveAppliedOutput = driveMtr.get();
+    }
+
+    @Override
+    public double getDrivePositionMeters() {
+        return driveEnc.getPosition();
+    }
+
+    @Override
+    public double getSteerAngleRad() {
+        return steerEnc.getPosition();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The value is refreshed by the SignalBatch passed to registerSignals().
+     */
+    @Override
+    public double getCanCoderAngleRad() {
+        return canCoderPosition.getValueAsDouble() * 2.0 * Math.PI;
+    }
+
+    @Override
+    public void setDriveOutput(double output) {
+        driveMtr.set(output);
+    }
+
+    @Override
+    public void setDriveVoltage(double volts) {
+        driveMtr.setVoltage(volts);
+    }
+
+    @Override
+    public void setDrivePositionSetpoint(double positionMeters) {
+        driveController.setReference(positionMeters, ControlType.kPosition);
+    }
+
+    @Override
+    public void setSteerAngleSetpoint(double angleRad) {
+        steerController.setReference(angleRad, ControlType.kPosition);
+    }
+
+    @Override
+    public void resetDrivePosition() {
+        driveEnc.setPosition(0.0);
+    }
+
+    @Override
+    public void registerSignals(SignalBatch signals) {
+        signals.register(DriveConstants.statusSignalFrequencyHz, canCoderPosition);
+    }
+}
@@ -0,0 +1,30 @@
+package frc.robot.util.led;
+
+/**
+ * A pattern drawn across a sequence of LEDs by an LEDEffectEngine. See LEDEffects for the built in effects.
+ *
+ * <p>Effects draw packed colors, see PackedColor, in the order colors are set, before any reversal. An effect draws
+ * over the effects of lower layers, and any LED it leaves alone shows the lower layers through.
+ */
+@FunctionalInterface
+public interface LEDEffect {
+
+    /**
+     * Draws the effect.
+     *
+     * @param colors The colors of the lower layers to draw over. Only the first length colors are LEDs.
+     * @param length The number of LEDs.
+     * @param timeSec The time of the frame in seconds.
+     */
+    public void render(int[] colors, int length, double timeSec);
+
+    /**
+     * Returns whether the effect can draw something different without being set again, such as when it depends on
+     * the time or a supplier. Frames with no animated effects are only drawn when an effect is set.
+     *
+     * @return True if the effect is animated.
+     */
+    public default boolean isAnimated() {
+        return true;
+    }
+}
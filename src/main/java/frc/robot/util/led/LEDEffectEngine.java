@@ -0,0 +1,88 @@
+package frc.robot.util.led;
+
+import java.util.Arrays;
+
+/**
+ * Draws layers of LEDEffects onto an LEDParent.
+ *
+ * <p>Each frame, every layer is drawn from lowest to highest into one frame of packed colors, which is then set on
+ * the LEDParent. Commands only set the effect of a layer, so any number of status indicators costs one pass over the
+ * LEDs per frame, and the LEDParent only marks the LEDs whose color actually changed.
+ *
+ * <p>Effects may be set from one thread while frames are rendered on another, such as the render thread of an
+ * LEDStripArray. Effects are then drawn on the render thread, so their suppliers should be safe to call from it.
+ */
+public class LEDEffectEngine {
+
+    private final LEDParent target;
+
+    // The effect of each layer, or null if the layer is empty. Higher layers are drawn over lower layers.
+    private final LEDEffect[] layers;
+
+    private final int[] colors;
+
+    // Set when a layer changes, so a frame of effects that are not animated is drawn once.
+    private boolean isChanged = true;
+
+    /**
+     * Creates a new LEDEffectEngine and sets the values of the LEDParent to 1, so the effects set the colors as drawn.
+     *
+     * @param target The LEDParent to draw onto.
+     * @param layerCount The number of layers.
+     */
+    public LEDEffectEngine(LEDParent target, int layerCount) {
+        this.target = target;
+
+        layers = new LEDEffect[layerCount];
+        colors = new int[target.getLength()];
+
+        target.setValue(1.0);
+    }
+
+    public synchronized LEDEffect getEffect(int layer) {
+        return layers[layer];
+    }
+
+    /**
+     * Sets the effect of a layer. Setting the effect a layer already has does nothing.
+     *
+     * @param layer The layer, from 0 at the bottom.
+     * @param effect The effect, or null to empty the layer.
+     */
+    public synchronized void setEffect(int layer, LEDEffect effect) {
+        if(layers[layer] == effect) return;
+        layers[layer] = effect;
+        isChanged = true;
+    }
+
+    public void clearEffect(int layer) {
+        setEffect(layer, null);
+    }
+
+    /**
+     * Draws every layer and sets the colors of the LEDParent. Does nothing if no layer changed and no effect is animated.
+     *
+     * @param timeSec The time of the frame in seconds.
+     */
+    public synchronized void render(double timeSec) {
+        if(!isChanged && !isAnimated()) return;
+
+        Arrays.fill(colors, PackedColor.black);
+        for(LEDEffect effect : layers) {
+            if(effect != null) effect.render(colors, colors.length, timeSec);
+        }
+
+        for(int i = 0; i < colors.length; i++) {
+            target.setPackedColor(colors[i], i);
+        }
+
+        isChanged = false;
+    }
+
+    private boolean isAnimated() {
+        for(LEDEffect effect : layers) {
+            if(effect != null && effect.isAnimated()) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package frc.robot.util.led;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.util.Color;
+
+/**
+ * The built in LEDEffects. Colors are packed when the effect is created, so drawing an effect does not allocate.
+ */
+public final class LEDEffects {
+
+    private LEDEffects() {}
+
+    /**
+     * Creates an effect that sets every LED to one color.
+     *
+     * @param color The color.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect solid(Color color) {
+        int rgb = PackedColor.pack(color);
+        return new LEDEffect() {
+            @Override
+            public void render(int[] colors, int length, double timeSec) {
+                Arrays.fill(colors, 0, length, rgb);
+            }
+
+            @Override
+            public boolean isAnimated() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that fades from one color at the first LED to another at the last LED.
+     *
+     * @param startColor The color of the first LED.
+     * @param endColor The color of the last LED.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect gradient(Color startColor, Color endColor) {
+        int startRGB = PackedColor.pack(startColor);
+        int endRGB = PackedColor.pack(endColor);
+        return new LEDEffect() {
+            @Override
+            public void render(int[] colors, int length, double timeSec) {
+                for(int i = 0; i < length; i++) {
+                    double t = length > 1 ? (double)i / (length - 1) : 0.0;
+                    colors[i] = PackedColor.pack(
+                        (int)(PackedColor.red(startRGB) + (PackedColor.red(endRGB) - PackedColor.red(startRGB)) * t),
+                        (int)(PackedColor.green(startRGB) + (PackedColor.green(endRGB) - PackedColor.green(startRGB)) * t),
+                        (int)(PackedColor.blue(startRGB) + (PackedColor.blue(endRGB) - PackedColor.blue(startRGB)) * t));
+                }
+            }
+
+            @Override
+            public boolean isAnimated() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that scrolls a rainbow toward the last LED.
+     *
+     * @param hueIncrement The difference in hue, from 0 to 180, between neighboring LEDs.
+     * @param speedLEDsPerSec How many LEDs the rainbow moves each second.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect rainbow(double hueIncrement, double speedLEDsPerSec) {
+        return (colors, length, timeSec) -> {
+            double startHue = timeSec * speedLEDsPerSec * hueIncrement;
+            for(int i = 0; i < length; i++) {
+                int hue = Math.floorMod((int)(startHue - i * hueIncrement), 180);
+                colors[i] = PackedColor.fromHSV(hue, 255, 255);
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that moves a band of color toward the last LED, wrapping around to the first.
+     *
+     * @param color The color of the band.
+     * @param width The number of LEDs in the band.
+     * @param speedLEDsPerSec How many LEDs the band moves each second.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect chase(Color color, int width, double speedLEDsPerSec) {
+        int rgb = PackedColor.pack(color);
+        return (colors, length, timeSec) -> {
+            if(length == 0) return;
+            int head = (int)Math.floorMod((long)(timeSec * speedLEDsPerSec), (long)length);
+            for(int i = 0; i < Math.min(width, length); i++) {
+                colors[Math.floorMod(head - i, length)] = rgb;
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that draws another effect for the first half of each period, and nothing for the second.
+     *
+     * @param effect The effect to blink.
+     * @param periodSec The time of one blink in seconds.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect blink(LEDEffect effect, double periodSec) {
+        return (colors, length, timeSec) -> {
+            if(timeSec % periodSec < periodSec / 2.0) {
+                effect.render(colors, length, timeSec);
+            }
+        };
+    }
+
+    /**
+     * Creates an effect that fills the LEDs from the first by a fraction, such as how far a mechanism has moved.
+     *
+     * @param color The color of the filled LEDs.
+     * @param fractionSupplier The fraction of the LEDs to fill, from 0 to 1.
+     *
+     * @return The effect.
+     */
+    public static LEDEffect progressBar(Color color, DoubleSupplier fractionSupplier) {
+        int rgb = PackedColor.pack(color);
+        return (colors, length, timeSec) -> {
+            double fraction = Math.max(0.0, Math.min(1.0, fractionSupplier.getAsDouble()));
+            Arrays.fill(colors, 0, (int)Math.round(fraction * length), rgb);
+        };
+    }
+}
@@ -2,26 +2,69 @@ package frc.robot.util.led;
 
 import edu.wpi.first.wpilibj.util.Color;
 
+/**
+ * A sequence of LEDs that can be colored and rendered into a frame.
+ * 
+ * <p>Colors are stored packed as 0xRRGGBB ints, see PackedColor. Colors and values are indexed in the order they
+ * were set, before any reversal. LEDs and pixels are indexed in the order they are wired, after reversal. A pixel is
+ * the color scaled by its value, and an LED is the pixel also scaled by the brightness.
+ * 
+ * <p>Setting a color or value to what it already is does not count as a change, so a command can set the same
+ * color every loop without the LEDs being rendered again.
+ */
 public interface LEDParent {
 
     public enum TranslateDirection {
         FORWARD,
         REVERSE
     }
-    
-    public Color[] getLEDBuffer();
 
-    public Color getLED(int index);
+    /**
+     * Writes the packed color of each LED, in wired order, into a frame.
+     * 
+     * @param frame The frame to write into.
+     * @param offset The index in the frame of the first LED.
+     */
+    public void renderLEDs(int[] frame, int offset);
+
+    /**
+     * Writes only the LEDs that changed since the last render into a frame. The rest of the frame is left as it was.
+     * 
+     * <p>Rendering clears the changes, so an LEDParent should only be rendered by one LEDStripArray.
+     * 
+     * @param frame The frame to write into.
+     * @param offset The index in the frame of the first LED.
+     */
+    public void renderDirtyLEDs(int[] frame, int offset);
+
+    /**
+     * Returns the first LED, in wired order, that changed since the last render.
+     * 
+     * @return The index of the LED. Equal to getDirtyEnd() if nothing changed.
+     */
+    public int getDirtyStart();
+
+    /**
+     * Returns the LED after the last LED, in wired order, that changed since the last render.
+     * 
+     * @return The index after the LED.
+     */
+    public int getDirtyEnd();
+
+    /**
+     * Returns a counter that goes up whenever anything that affects the LEDs changes. It never goes down.
+     * 
+     * @return The generation.
+     */
+    public long getGeneration();
 
-    public Color[] getPixelBuffer();
+    public Color getLED(int index);
 
     public Color getPixel(int index);
 
-    public Color[] getColorBuffer();
-
     public Color getColor(int index);
 
-    public double[] getValueBuffer();
+    public int getPackedColor(int index);
 
     public double getValue(int index);
 
@@ -36,8 +79,14 @@ public interface LEDParent {
 
     public void setColor(Color color, int index);
 
+    public void setPackedColor(int rgb);
+
+    public void setPackedColor(int rgb, int index);
+
     public void translateColors(TranslateDirection direction, Color... voidColors);
 
+    public void translatePackedColors(TranslateDirection direction, int... voidColors);
+
     public void setValue(double value);
 
     public void setValue(double value, int index);
@@ -10,21 +10,32 @@ public class LEDStrip implements LEDParent {
 
     private double brightness = 1.0;
 
-    private Color[] colorBuffer;
-    private double[] valueBuffer;
+    // Packed 0xRRGGBB colors, see PackedColor.
+    // Both buffers are rings. Color i is stored at (colorHead + i) % length, so translating only writes the new entries.
+    private final int[] colorBuffer;
+    private final double[] valueBuffer;
+    private int colorHead = 0;
+    private int valueHead = 0;
+
+    // The range of the color and value buffers changed since the last render, and a counter of changes.
+    private int dirtyStart;
+    private int dirtyEnd;
+    private long generation = 0;
 
     public LEDStrip(int length, double brightness, boolean isReversed) {
         this.length = length;
         this.brightness = brightness;
         this.isReversed = isReversed;
 
-        colorBuffer = new Color[length];
+        colorBuffer = new int[length];
         valueBuffer = new double[length];
 
         for(int i = 0; i < length; i++) {
-            colorBuffer[i] = new Color();
+            colorBuffer[i] = PackedColor.black;
             valueBuffer[i] = 1.0;
         }
+
+        markDirty(0, length);
     }
 
     public LEDStrip(int length) {
@@ -47,165 +58,221 @@ public class LEDStrip implements LEDParent {
         return isReversed;
     }
     public void setReversed(boolean isReversed) {
+        if(isReversed == this.isReversed) return;
         this.isReversed = isReversed;
+        markDirty(0, length);
     }
 
     public double getBrightness() {
         return brightness;
     }
     public void setBrightness(double brightness) {
+        if(brightness == this.brightness) return;
         this.brightness = brightness;
+        markDirty(0, length);
     }
 
-    public Color[] getLEDBuffer() {
-        Color[] ledBuffer = new Color[length];
-        if(isReversed) {
-            for(int i = length - 1; i >= 0; i--) {
-                ledBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i] * brightness,
-                        colorBuffer[i].green * valueBuffer[i] * brightness,
-                        colorBuffer[i].blue * valueBuffer[i] * brightness
-                    );
-            }
-        }
-        else {
-            for(int i = 0; i < length; i++) {
-                ledBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i] * brightness,
-                        colorBuffer[i].green * valueBuffer[i] * brightness,
-                        colorBuffer[i].blue * valueBuffer[i] * brightness
-                    );
-            } 
+    /**
+     * Adds a range of the color and value buffers to the dirty range.
+     */
+    private void markDirty(int start, int end) {
+        dirtyStart = Math.min(dirtyStart, start);
+        dirtyEnd = Math.max(dirtyEnd, end);
+        generation++;
+    }
+
+    private void clearDirty() {
+        dirtyStart = length;
+        dirtyEnd = 0;
+    }
+
+    public int getDirtyStart() {
+        if(dirtyStart >= dirtyEnd) return 0;
+        return isReversed ? length - dirtyEnd : dirtyStart;
+    }
+
+    public int getDirtyEnd() {
+        if(dirtyStart >= dirtyEnd) return 0;
+        return isReversed ? length - dirtyStart : dirtyEnd;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the color and value index of an LED.
+     */
+    private int getBufferIndex(int ledIndex) {
+        return isReversed ? length - 1 - ledIndex : ledIndex;
+    }
+
+    /**
+     * Returns where a color is stored in the color ring.
+     */
+    private int getColorSlot(int index) {
+        int slot = colorHead + index;
+        return slot >= length ? slot - length : slot;
+    }
+
+    /**
+     * Returns where a value is stored in the value ring.
+     */
+    private int getValueSlot(int index) {
+        int slot = valueHead + index;
+        return slot >= length ? slot - length : slot;
+    }
+
+    public void renderLEDs(int[] frame, int offset) {
+        renderLEDs(frame, offset, 0, length);
+    }
+
+    public void renderDirtyLEDs(int[] frame, int offset) {
+        renderLEDs(frame, offset, getDirtyStart(), getDirtyEnd());
+    }
+
+    /**
+     * Renders a range of LEDs, in wired order, and clears the dirty range.
+     */
+    private void renderLEDs(int[] frame, int offset, int start, int end) {
+        for(int i = start; i < end; i++) {
+            int bufferIndex = getBufferIndex(i);
+            frame[offset + i] =
+                PackedColor.scale(colorBuffer[getColorSlot(bufferIndex)], valueBuffer[getValueSlot(bufferIndex)] * brightness);
         }
-        return ledBuffer;
+        clearDirty();
     }
 
     public Color getLED(int index) {
-        if(isReversed) {
-            index = length - 1 - index;
-        }
-        return new Color(
-            colorBuffer[index].red * valueBuffer[index] * brightness,
-            colorBuffer[index].green * valueBuffer[index] * brightness,
-            colorBuffer[index].blue * valueBuffer[index] * brightness
-        );
-    }
-
-    public Color[] getPixelBuffer() {
-        Color[] pixelBuffer = new Color[length];
-        if(isReversed) {
-            for(int i = length - 1; i >= 0; i--) {
-                pixelBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i],
-                        colorBuffer[i].green * valueBuffer[i],
-                        colorBuffer[i].blue * valueBuffer[i]
-                    );
-            }
-        }
-        else {
-            for(int i = 0; i < length; i++) {
-                pixelBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i],
-                        colorBuffer[i].green * valueBuffer[i],
-                        colorBuffer[i].blue * valueBuffer[i]
-                    );
-            } 
-        }
-        return pixelBuffer;    }
+        int bufferIndex = getBufferIndex(index);
+        return PackedColor.toColor(
+            PackedColor.scale(colorBuffer[getColorSlot(bufferIndex)], valueBuffer[getValueSlot(bufferIndex)] * brightness));
+    }
 
     public Color getPixel(int index) {
-        if(isReversed) {
-            index = length - 1 - index;
-        }
-        return new Color(
-            colorBuffer[index].red * valueBuffer[index],
-            colorBuffer[index].green * valueBuffer[index],
-            colorBuffer[index].blue * valueBuffer[index]
-        );
-    }
-    
-    public Color[] getColorBuffer() {
-        return colorBuffer;
+        int bufferIndex = getBufferIndex(index);
+        return PackedColor.toColor(PackedColor.scale(colorBuffer[getColorSlot(bufferIndex)], valueBuffer[getValueSlot(bufferIndex)]));
     }
-    
+
     public Color getColor(int index) {
-        return colorBuffer[index];
+        return PackedColor.toColor(getPackedColor(index));
     }
 
-    public double[] getValueBuffer() {
-        return valueBuffer;
+    public int getPackedColor(int index) {
+        return colorBuffer[getColorSlot(index)];
     }
 
     public double getValue(int index) {
-        return valueBuffer[index];
+        return valueBuffer[getValueSlot(index)];
     }
 
     public void setColor(Color color) {
+        setPackedColor(PackedColor.pack(color));
+    }
+
+    public void setColor(Color color, int index) {
+        setPackedColor(PackedColor.pack(color), index);
+    }
+
+    public void setPackedColor(int rgb) {
+        int changedStart = length;
+        int changedEnd = 0;
         for(int i = 0; i < length; i++) {
-            colorBuffer[i] = color;
+            int slot = getColorSlot(i);
+            if(colorBuffer[slot] != rgb) {
+                colorBuffer[slot] = rgb;
+                changedStart = Math.min(changedStart, i);
+                changedEnd = i + 1;
+            }
         }
+        if(changedStart < changedEnd) markDirty(changedStart, changedEnd);
     }
 
-    public void setColor(Color color, int index) {
-        colorBuffer[index] = color;
+    public void setPackedColor(int rgb, int index) {
+        int slot = getColorSlot(index);
+        if(colorBuffer[slot] == rgb) return;
+        colorBuffer[slot] = rgb;
+        markDirty(index, index + 1);
     }
 
     public void translateColors(TranslateDirection direction, Color... voidColors) {
-        if(voidColors.length > length) {
-            Color[] proxyVoidColors = new Color[length];
-            for(int i = 0; i < length; i++) {
-                proxyVoidColors[i] = voidColors[i];
-            }
-            voidColors = proxyVoidColors;
+        int[] packedVoidColors = new int[voidColors.length];
+        for(int i = 0; i < voidColors.length; i++) {
+            packedVoidColors[i] = PackedColor.pack(voidColors[i]);
         }
+        translatePackedColors(direction, packedVoidColors);
+    }
+
+    /**
+     * Moves the colors along the strip by the number of void colors, and fills the emptied end with them.
+     *
+     * <p>Only the head of the color ring moves, so this costs the number of void colors, not the length.
+     */
+    public void translatePackedColors(TranslateDirection direction, int... voidColors) {
+        int shift = Math.min(voidColors.length, length);
+        if(shift == 0) return;
+
         if(direction == TranslateDirection.FORWARD) {
-            for(int i = voidColors.length; i < length; i++) {
-                colorBuffer[i] = colorBuffer[i - voidColors.length];
-            }
-            for(int i = 0; i < voidColors.length; i++) {
-                colorBuffer[i] = voidColors[i];
+            colorHead -= shift;
+            if(colorHead < 0) colorHead += length;
+            for(int i = 0; i < shift; i++) {
+                colorBuffer[getColorSlot(i)] = voidColors[i];
             }
         }
         else {
-            for(int i = length - voidColors.length - 1; i >= 0; i--) {
-                colorBuffer[i] = colorBuffer[i + voidColors.length];
-            }
-            for(int i = 0; i < voidColors.length; i++) {
-                colorBuffer[length - voidColors.length + i] = voidColors[i];
+            colorHead += shift;
+            if(colorHead >= length) colorHead -= length;
+            for(int i = 0; i < shift; i++) {
+                colorBuffer[getColorSlot(length - shift + i)] = voidColors[i];
             }
         }
+        markDirty(0, length);
     }
 
     public void setValue(double value) {
+        int changedStart = length;
+        int changedEnd = 0;
         for(int i = 0; i < length; i++) {
-            valueBuffer[i] = value;
+            int slot = getValueSlot(i);
+            if(valueBuffer[slot] != value) {
+                valueBuffer[slot] = value;
+                changedStart = Math.min(changedStart, i);
+                changedEnd = i + 1;
+            }
         }
+        if(changedStart < changedEnd) markDirty(changedStart, changedEnd);
     }
 
     public void setValue(double value, int index) {
-        valueBuffer[index] = value;
+        int slot = getValueSlot(index);
+        if(valueBuffer[slot] == value) return;
+        valueBuffer[slot] = value;
+        markDirty(index, index + 1);
     }
 
+    /**
+     * Moves the values along the strip by the number of void values, and fills the emptied end with them.
+     *
+     * <p>Only the head of the value ring moves, so this costs the number of void values, not the length.
+     */
     public void translateValues(TranslateDirection direction, double... voidValues) {
+        int shift = Math.min(voidValues.length, length);
+        if(shift == 0) return;
+
         if(direction == TranslateDirection.FORWARD) {
-            for(int i = voidValues.length; i < length; i++) {
-                valueBuffer[i] = valueBuffer[i - voidValues.length];
-            }
-            for(int i = 0; i < voidValues.length; i++) {
-                valueBuffer[i] = valueBuffer[i];
+            valueHead -= shift;
+            if(valueHead < 0) valueHead += length;
+            for(int i = 0; i < shift; i++) {
+                valueBuffer[getValueSlot(i)] = voidValues[i];
             }
         }
         else {
-            for(int i = length - voidValues.length - 1; i >= 0; i--) {
-                valueBuffer[i] = valueBuffer[i + voidValues.length];
-            }
-            for(int i = 0; i < voidValues.length; i++) {
-                valueBuffer[length - voidValues.length + i] = voidValues[i];
+            valueHead += shift;
+            if(valueHead >= length) valueHead -= length;
+            for(int i = 0; i < shift; i++) {
+                valueBuffer[getValueSlot(length - shift + i)] = voidValues[i];
             }
         }
+        markDirty(0, length);
     }
 }
@@ -1,55 +1,276 @@
 package frc.robot.util.led;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.TelemetryConstants;
 import frc.robot.util.led.LEDParent.TranslateDirection;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.telemetry.TelemetryPublisher;
 
+/**
+ * Renders LEDParents onto one AddressableLED.
+ *
+ * <p>By default frames are rendered in periodic. After startRenderThread(), frames are rendered on a Notifier into a
+ * back frame that is swapped with the front frame when done, and periodic only copies the front frame into the
+ * AddressableLED. While the render thread runs, the LEDParents should only be changed from the render callback or
+ * through the methods of this class, which hold the same lock as rendering.
+ */
 public class LEDStripArray extends SubsystemBase{
-    
+
+    private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("LEDStripArray.periodic");
+
     private final LEDParent[] ledStrips;
 
     private final AddressableLED driver;
 
     private final AddressableLEDBuffer buffer;
 
-    private boolean isPaused = false;
+    // Every LED of every strip as packed colors. Only the LEDs that changed are rendered into it.
+    private final int[] frame;
+
+    // The generation of each strip when it was last rendered, so unchanged strips are skipped.
+    private final long[] renderedGenerations;
+
+    // Called with the time of each frame before it is rendered, on the thread that renders.
+    private DoubleConsumer renderCallback = timestampSec -> {};
+
+    // Frames are not pushed more often than this. Zero pushes every loop something changed.
+    private double minFramePeriodSec = 0.0;
+    private double lastFrameTimestampSec = Double.NEGATIVE_INFINITY;
+
+    private volatile boolean isPaused = false;
+
+    // Held while the LEDParents are rendered or changed through this class.
+    private final Object renderLock = new Object();
+
+    private Notifier renderNotifier = null;
+    private double renderPeriodSec = 0.0;
+
+    // The render thread copies frame into backFrame and swaps it with frontFrame under frameLock. The range of the
+    // front frame that changed since periodic last copied it, and whether there is a frame to copy at all.
+    private final Object frameLock = new Object();
+    private int[] frontFrame;
+    private int[] backFrame;
+    private int frontDirtyStart;
+    private int frontDirtyEnd = 0;
+    private boolean isFrontFrameReady = false;
+
+    // Dropped frames were swapped in before periodic copied the last one. Late frames took longer than the period.
+    private final AtomicInteger renderedFrameCount = new AtomicInteger();
+    private final AtomicInteger droppedFrameCount = new AtomicInteger();
+    private final AtomicInteger lateFrameCount = new AtomicInteger();
+
+    private final TelemetryPublisher telemetry =
+        new TelemetryPublisher(NetworkTableInstance.getDefault().getTable("LEDStripArray"));
 
     public LEDStripArray(int pwmPort, LEDParent... ledStrips) {
         this.ledStrips = ledStrips;
 
         driver = new AddressableLED(pwmPort);
-        
+
         int length = 0;
         for(LEDParent ledStrip : ledStrips) {
             length += ledStrip.getLength();
         }
 
         buffer = new AddressableLEDBuffer(length);
+        frame = new int[length];
+        frontFrame = new int[length];
+        backFrame = new int[length];
+        frontDirtyStart = length;
+
+        renderedGenerations = new long[ledStrips.length];
+        Arrays.fill(renderedGenerations, -1);
 
         driver.setLength(length);
 
         driver.setData(buffer);
 
         driver.start();
+
+        telemetry.addDouble("RenderedFrames", renderedFrameCount::get, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("DroppedFrames", droppedFrameCount::get, TelemetryConstants.calibrationPublishPeriodSec);
+        telemetry.addDouble("LateFrames", lateFrameCount::get, TelemetryConstants.calibrationPublishPeriodSec);
     }
 
     @Override
     public void periodic() {
+        periodicProfile.start();
+
+        double timestampSec = Timer.getFPGATimestamp();
+        if(renderNotifier != null) {
+            pushFrontFrame();
+        }
+        else if(!isPaused && timestampSec - lastFrameTimestampSec >= minFramePeriodSec) {
+            int dirtyStart;
+            int dirtyEnd;
+            synchronized(renderLock) {
+                renderCallback.accept(timestampSec);
+                long dirtyRange = renderFrame();
+                dirtyStart = (int)(dirtyRange >> 32);
+                dirtyEnd = (int)dirtyRange;
+            }
+
+            if(dirtyStart < dirtyEnd) {
+                copyToBuffer(frame, dirtyStart, dirtyEnd);
+                driver.setData(buffer);
+                lastFrameTimestampSec = timestampSec;
+                renderedFrameCount.incrementAndGet();
+            }
+        }
+
+        telemetry.update(timestampSec);
+
+        periodicProfile.stop();
+    }
+
+    /**
+     * Renders the strips that changed since they were last rendered into frame.
+     *
+     * @return The range of frame that changed, with the start in the upper 32 bits and the end in the lower 32 bits.
+     */
+    private long renderFrame() {
+        int changedStart = frame.length;
+        int changedEnd = 0;
+        int frameIndex = 0;
+        for(int i = 0; i < ledStrips.length; i++) {
+            LEDParent ledStrip = ledStrips[i];
+
+            long generation = ledStrip.getGeneration();
+            if(generation != renderedGenerations[i]) {
+                int dirtyStart = frameIndex + ledStrip.getDirtyStart();
+                int dirtyEnd = frameIndex + ledStrip.getDirtyEnd();
+
+                ledStrip.renderDirtyLEDs(frame, frameIndex);
+
+                if(dirtyStart < dirtyEnd) {
+                    changedStart = Math.min(changedStart, dirtyStart);
+                    changedEnd = Math.max(changedEnd, dirtyEnd);
+                }
+
+                renderedGenerations[i] = generation;
+            }
+
+            frameIndex += ledStrip.getLength();
+        }
+        return (long)changedStart << 32 | changedEnd;
+    }
+
+    /**
+     * Copies a range of a frame into the buffer. setRGB() writes straight into the buffer's data, so nothing is allocated.
+     */
+    private void copyToBuffer(int[] frame, int start, int end) {
+        for(int i = start; i < end; i++) {
+            int led = frame[i];
+            buffer.setRGB(i, PackedColor.red(led), PackedColor.green(led), PackedColor.blue(led));
+        }
+    }
+
+    /**
+     * Renders one frame on the render thread, and swaps it in as the front frame if anything changed.
+     */
+    private void renderBackFrame() {
         if(isPaused) return;
-        
-        int bufferIndex = 0;
-        for(LEDParent ledStrip : ledStrips) {
-            for(Color led : ledStrip.getLEDBuffer()) {
-                buffer.setLED(bufferIndex, led);
-                bufferIndex++;
+
+        double startTimestampSec = Timer.getFPGATimestamp();
+
+        int dirtyStart;
+        int dirtyEnd;
+        synchronized(renderLock) {
+            renderCallback.accept(startTimestampSec);
+            long dirtyRange = renderFrame();
+            dirtyStart = (int)(dirtyRange >> 32);
+            dirtyEnd = (int)dirtyRange;
+        }
+
+        if(dirtyStart < dirtyEnd) {
+            // frame only holds the LEDs rendered so far, so the whole frame is copied to keep the back frame complete.
+            System.arraycopy(frame, 0, backFrame, 0, frame.length);
+
+            synchronized(frameLock) {
+                int[] swappedFrame = frontFrame;
+                frontFrame = backFrame;
+                backFrame = swappedFrame;
+
+                if(isFrontFrameReady) droppedFrameCount.incrementAndGet();
+                isFrontFrameReady = true;
+
+                // A dropped frame's changes are still pushed with this one.
+                frontDirtyStart = Math.min(frontDirtyStart, dirtyStart);
+                frontDirtyEnd = Math.max(frontDirtyEnd, dirtyEnd);
             }
+
+            renderedFrameCount.incrementAndGet();
+        }
+
+        if(Timer.getFPGATimestamp() - startTimestampSec > renderPeriodSec) {
+            lateFrameCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Copies the changed range of the front frame into the buffer and pushes it, if the render thread swapped in a frame.
+     */
+    private void pushFrontFrame() {
+        synchronized(frameLock) {
+            if(!isFrontFrameReady) return;
+
+            copyToBuffer(frontFrame, frontDirtyStart, frontDirtyEnd);
+
+            isFrontFrameReady = false;
+            frontDirtyStart = frontFrame.length;
+            frontDirtyEnd = 0;
         }
 
         driver.setData(buffer);
     }
 
+    /**
+     * Starts rendering frames on a separate thread, so periodic only pushes finished frames to the LEDs.
+     *
+     * @param frameRateHz How many frames are rendered per second.
+     */
+    public void startRenderThread(double frameRateHz) {
+        if(renderNotifier != null) return;
+
+        renderPeriodSec = 1.0 / frameRateHz;
+
+        renderNotifier = new Notifier(this::renderBackFrame);
+        renderNotifier.setName("LEDStripArray");
+        renderNotifier.startPeriodic(renderPeriodSec);
+    }
+
+    /**
+     * Sets a callback run with the time of each frame before it is rendered, such as LEDEffectEngine.render(). It is
+     * run on the render thread once startRenderThread() is called, so it may change the LEDParents safely.
+     *
+     * @param renderCallback The callback.
+     */
+    public void setRenderCallback(DoubleConsumer renderCallback) {
+        synchronized(renderLock) {
+            this.renderCallback = renderCallback;
+        }
+    }
+
+    /**
+     * Limits how often frames are pushed to the LEDs when they are not rendered on a separate thread. Changes made in
+     * between are pushed with the next frame.
+     *
+     * @param maxFrameRateHz The most frames pushed per second, or zero for no limit.
+     */
+    public void setMaxFrameRateHz(double maxFrameRateHz) {
+        minFramePeriodSec = maxFrameRateHz > 0.0 ? 1.0 / maxFrameRateHz : 0.0;
+    }
+
     public boolean isPaused() {
         return isPaused;
     }
@@ -58,32 +279,42 @@ public class LEDStripArray extends SubsystemBase{
     }
 
     public void setColors(Color color) {
-        for(LEDParent ledStrip : ledStrips) {
-            ledStrip.setColor(color);
+        synchronized(renderLock) {
+            for(LEDParent ledStrip : ledStrips) {
+                ledStrip.setColor(color);
+            }
         }
     }
 
     public void translateColors(TranslateDirection direction, Color... colors) {
-        for(LEDParent ledStrip : ledStrips) {
-            ledStrip.translateColors(direction, colors);
+        synchronized(renderLock) {
+            for(LEDParent ledStrip : ledStrips) {
+                ledStrip.translateColors(direction, colors);
+            }
         }
     }
 
     public void setValues(double value) {
-        for(LEDParent ledStrip : ledStrips) {
-            ledStrip.setValue(value);
+        synchronized(renderLock) {
+            for(LEDParent ledStrip : ledStrips) {
+                ledStrip.setValue(value);
+            }
         }
     }
 
     public void translateValues(TranslateDirection direction, double... values) {
-        for(LEDParent ledStrip : ledStrips) {
-            ledStrip.translateValues(direction, values);
+        synchronized(renderLock) {
+            for(LEDParent ledStrip : ledStrips) {
+                ledStrip.translateValues(direction, values);
+            }
         }
     }
 
     public void setBrightnesses(double brightness) {
-        for(LEDParent ledStrip : ledStrips) {
-            ledStrip.setBrightness(brightness);
+        synchronized(renderLock) {
+            for(LEDParent ledStrip : ledStrips) {
+                ledStrip.setBrightness(brightness);
+            }
         }
     }
 }
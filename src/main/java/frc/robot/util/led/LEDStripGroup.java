@@ -1,36 +1,46 @@
 package frc.robot.util.led;
 
+import java.util.Arrays;
+
 import edu.wpi.first.wpilibj.util.Color;
 
+/**
+ * Treats several LEDParents as one continuous sequence of LEDs.
+ *
+ * <p>A group has no buffers of its own. Each index is passed to the component that holds it, so setting a color
+ * on the group and rendering its components always agree.
+ */
 public class LEDStripGroup implements LEDParent {
 
     private final LEDParent[] components;
 
-    private final Color[] colorBuffer;
-
-    private final double[] valueBuffer;
-
     private final int length;
 
+    // The group index of the first LED of each component, followed by the length of the group.
+    private final int[] componentStarts;
+
     private boolean isReversed;
 
+    // Counts changes to the group itself. Changes to components are counted by the components.
+    private long generation = 0;
+
+    // Set when every LED must be rendered again, such as after the group is reversed.
+    private boolean isFullyDirty = true;
+
+    // Reversed groups render their components here first, then copy them into the frame backwards.
+    private final int[] reversedFrame;
+
     public LEDStripGroup(boolean isReversed, LEDParent... components) {
         this.isReversed = isReversed;
         this.components = components;
-        int length = 0;
-        for(LEDParent ledStrip : components) {
-            length += ledStrip.getLength();
+        componentStarts = new int[components.length + 1];
+        for(int i = 0; i < components.length; i++) {
+            componentStarts[i + 1] = componentStarts[i] + components[i].getLength();
         }
 
-        colorBuffer = new Color[length];
-        valueBuffer = new double[length];
-
-        for(int i = 0; i < length; i++) {
-            colorBuffer[i] = new Color();
-            valueBuffer[i] = 1.0;
-        }
+        this.length = componentStarts[components.length];
 
-        this.length = length;
+        reversedFrame = new int[length];
     }
 
     public LEDStripGroup(LEDStrip... components) {
@@ -49,191 +59,230 @@ public class LEDStripGroup implements LEDParent {
         return isReversed;
     }
     public void setReversed(boolean isReversed) {
+        if(isReversed == this.isReversed) return;
         this.isReversed = isReversed;
+        generation++;
+        isFullyDirty = true;
     }
 
-    public void setBrightness(double brightness) {
+    public long getGeneration() {
+        long generation = this.generation;
         for(LEDParent ledStrip : components) {
-            ledStrip.setBrightness(brightness);
+            generation += ledStrip.getGeneration();
         }
+        return generation;
     }
 
-    public Color[] getLEDBuffer() {
-        Color[] pixelBuffer = new Color[length];
-        int groupPixel = 0;
-        if(isReversed) {
-            for(LEDParent ledStrip : components) {
-                for(int i = ledStrip.getLength() - 1; i >= 0; i--) {
-                    pixelBuffer[groupPixel] = ledStrip.getPixel(i);
-                    groupPixel++;
-                }
+    /**
+     * Returns the start of the changed range of the components, before the group is reversed.
+     */
+    private int getComponentsDirtyStart() {
+        if(isFullyDirty) return 0;
+
+        int dirtyStart = length;
+        for(int i = 0; i < components.length; i++) {
+            LEDParent ledStrip = components[i];
+            if(ledStrip.getDirtyStart() < ledStrip.getDirtyEnd()) {
+                dirtyStart = Math.min(dirtyStart, componentStarts[i] + ledStrip.getDirtyStart());
             }
         }
-        else {
-            for(LEDParent ledStrip : components) {
-                for(int i = 0; i < length; i++) {
-                    pixelBuffer[groupPixel] = ledStrip.getPixel(i);
-                    groupPixel++;
-                }
+        return dirtyStart;
+    }
+
+    /**
+     * Returns the end of the changed range of the components, before the group is reversed.
+     */
+    private int getComponentsDirtyEnd() {
+        if(isFullyDirty) return length;
+
+        int dirtyEnd = 0;
+        for(int i = 0; i < components.length; i++) {
+            LEDParent ledStrip = components[i];
+            if(ledStrip.getDirtyStart() < ledStrip.getDirtyEnd()) {
+                dirtyEnd = Math.max(dirtyEnd, componentStarts[i] + ledStrip.getDirtyEnd());
             }
         }
-        return pixelBuffer;
+        return dirtyEnd;
     }
 
-    public Color getLED(int index) {
-        if(isReversed) {
-            index = length - 1 - index;
-        }
-        int pixelCount = 0;
+    public int getDirtyStart() {
+        int dirtyStart = getComponentsDirtyStart();
+        int dirtyEnd = getComponentsDirtyEnd();
+        if(dirtyStart >= dirtyEnd) return 0;
+        return isReversed ? length - dirtyEnd : dirtyStart;
+    }
+
+    public int getDirtyEnd() {
+        int dirtyStart = getComponentsDirtyStart();
+        int dirtyEnd = getComponentsDirtyEnd();
+        if(dirtyStart >= dirtyEnd) return 0;
+        return isReversed ? length - dirtyStart : dirtyEnd;
+    }
+
+    public void setBrightness(double brightness) {
         for(LEDParent ledStrip : components) {
-            pixelCount += ledStrip.getLength();
-            if(pixelCount > index) {
-                return ledStrip.getPixel(index + ledStrip.getLength() - pixelCount);
-            }
+            ledStrip.setBrightness(brightness);
         }
-        throw new ArrayIndexOutOfBoundsException(index);
     }
 
-    public Color[] getPixelBuffer() {
-        Color[] pixelBuffer = new Color[length];
+    /**
+     * Returns the index of the component holding a group index, with a binary search of the component starts.
+     */
+    private int getComponentIndex(int index) {
+        if(index < 0 || index >= length) throw new ArrayIndexOutOfBoundsException(index);
+
+        int componentIndex = Arrays.binarySearch(componentStarts, 0, components.length, index);
+        if(componentIndex < 0) return -componentIndex - 2;
+
+        // Empty components share a start with the next component, so skip to the last component starting here.
+        while(componentStarts[componentIndex + 1] == index) componentIndex++;
+        return componentIndex;
+    }
+
+    /**
+     * Returns the group index of the first LED of a component.
+     */
+    private int getComponentStart(int componentIndex) {
+        return componentStarts[componentIndex];
+    }
+
+    public void renderLEDs(int[] frame, int offset) {
+        isFullyDirty = true;
+        renderDirtyLEDs(frame, offset);
+    }
+
+    public void renderDirtyLEDs(int[] frame, int offset) {
+        int dirtyStart = getComponentsDirtyStart();
+        int dirtyEnd = getComponentsDirtyEnd();
+
+        int[] componentFrame = isReversed ? reversedFrame : frame;
+        int componentOffset = isReversed ? 0 : offset;
+        for(LEDParent ledStrip : components) {
+            if(isFullyDirty) ledStrip.renderLEDs(componentFrame, componentOffset);
+            else ledStrip.renderDirtyLEDs(componentFrame, componentOffset);
+            componentOffset += ledStrip.getLength();
+        }
+
         if(isReversed) {
-            for(int i = length - 1; i >= 0; i--) {
-                pixelBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i],
-                        colorBuffer[i].green * valueBuffer[i],
-                        colorBuffer[i].blue * valueBuffer[i]
-                    );
+            for(int i = dirtyStart; i < dirtyEnd; i++) {
+                frame[offset + length - 1 - i] = reversedFrame[i];
             }
         }
-        else {
-            for(int i = 0; i < length; i++) {
-                pixelBuffer[i] =
-                    new Color(
-                        colorBuffer[i].red * valueBuffer[i],
-                        colorBuffer[i].green * valueBuffer[i],
-                        colorBuffer[i].blue * valueBuffer[i]
-                    );
-            } 
+
+        isFullyDirty = false;
+    }
+
+    public Color getLED(int index) {
+        if(isReversed) {
+            index = length - 1 - index;
         }
-        return pixelBuffer;
+        int componentIndex = getComponentIndex(index);
+        return components[componentIndex].getLED(index - getComponentStart(componentIndex));
     }
 
     public Color getPixel(int index) {
         if(isReversed) {
             index = length - 1 - index;
         }
-        return new Color(
-            colorBuffer[index].red * valueBuffer[index],
-            colorBuffer[index].green * valueBuffer[index],
-            colorBuffer[index].blue * valueBuffer[index]
-        );
+        int componentIndex = getComponentIndex(index);
+        return components[componentIndex].getPixel(index - getComponentStart(componentIndex));
     }
 
-    public Color[] getColorBuffer() {
-        return colorBuffer;
-    }
-    
     public Color getColor(int index) {
-        return colorBuffer[index];
+        return PackedColor.toColor(getPackedColor(index));
     }
 
-    public double[] getValueBuffer() {
-        return valueBuffer;
+    public int getPackedColor(int index) {
+        int componentIndex = getComponentIndex(index);
+        return components[componentIndex].getPackedColor(index - getComponentStart(componentIndex));
     }
 
     public double getValue(int index) {
-        return valueBuffer[index];
+        int componentIndex = getComponentIndex(index);
+        return components[componentIndex].getValue(index - getComponentStart(componentIndex));
     }
 
     public void setColor(Color color) {
-        for(int i = 0; i < length; i++) {
-            colorBuffer[i] = color;
-        }
-        
-        for(LEDParent ledStrip : components) {
-            ledStrip.setColor(color);
-        }
+        setPackedColor(PackedColor.pack(color));
     }
 
     public void setColor(Color color, int index) {
-        colorBuffer[index] = color;
+        setPackedColor(PackedColor.pack(color), index);
+    }
+
+    public void setPackedColor(int rgb) {
         for(LEDParent ledStrip : components) {
-            if(index < ledStrip.getLength()) {
-                ledStrip.setColor(color, index);
-            }
+            ledStrip.setPackedColor(rgb);
         }
     }
 
+    public void setPackedColor(int rgb, int index) {
+        int componentIndex = getComponentIndex(index);
+        components[componentIndex].setPackedColor(rgb, index - getComponentStart(componentIndex));
+    }
+
     public void translateColors(TranslateDirection direction, Color... voidColors) {
-        if(voidColors.length > length) {
-            Color[] proxyVoidColors = new Color[length];
-            for(int i = 0; i < length; i++) {
-                proxyVoidColors[i] = voidColors[i];
-            }
-            voidColors = proxyVoidColors;
+        int[] packedVoidColors = new int[voidColors.length];
+        for(int i = 0; i < voidColors.length; i++) {
+            packedVoidColors[i] = PackedColor.pack(voidColors[i]);
         }
+        translatePackedColors(direction, packedVoidColors);
+    }
+
+    /**
+     * Translates colors along the whole group, carrying them from one component into the next.
+     */
+    public void translatePackedColors(TranslateDirection direction, int... voidColors) {
+        int shift = Math.min(voidColors.length, length);
         if(direction == TranslateDirection.FORWARD) {
-            for(int i = voidColors.length; i < length; i++) {
-                colorBuffer[i] = colorBuffer[i - voidColors.length];
+            for(int i = length - 1; i >= shift; i--) {
+                setPackedColor(getPackedColor(i - shift), i);
             }
-            for(int i = 0; i < voidColors.length; i++) {
-                colorBuffer[i] = voidColors[i];
+            for(int i = 0; i < shift; i++) {
+                setPackedColor(voidColors[i], i);
             }
         }
         else {
-            for(int i = length - voidColors.length - 1; i >= 0; i--) {
-                colorBuffer[i] = colorBuffer[i + voidColors.length];
+            for(int i = 0; i < length - shift; i++) {
+                setPackedColor(getPackedColor(i + shift), i);
             }
-            for(int i = 0; i < voidColors.length; i++) {
-                colorBuffer[length - voidColors.length + i] = voidColors[i];
+            for(int i = 0; i < shift; i++) {
+                setPackedColor(voidColors[i], length - shift + i);
             }
         }
-
-        for(LEDParent ledStrip : components) {
-            ledStrip.translateColors(direction, voidColors);
-        }
     }
 
     public void setValue(double value) {
-        for(int i = 0; i < length; i++) {
-            valueBuffer[i] = value;
-        }
-
         for(LEDParent ledStrip : components) {
             ledStrip.setValue(value);
         }
     }
 
     public void setValue(double value, int index) {
-        valueBuffer[index] = value;
-        for(LEDParent ledStrip : components) {
-            if(index < ledStrip.getLength()) {
-                ledStrip.setValue(value, index);
-            }
-        }
+        int componentIndex = getComponentIndex(index);
+        components[componentIndex].setValue(value, index - getComponentStart(componentIndex));
     }
 
+    /**
+     * Translates values along the whole group, carrying them from one component into the next.
+     */
     public void translateValues(TranslateDirection direction, double... voidValues) {
+        int shift = Math.min(voidValues.length, length);
         if(direction == TranslateDirection.FORWARD) {
-            for(int i = voidValues.length; i < length; i++) {
-                valueBuffer[i] = valueBuffer[i - voidValues.length];
+            for(int i = length - 1; i >= shift; i--) {
+                setValue(getValue(i - shift), i);
             }
-            for(int i = 0; i < voidValues.length; i++) {
-                valueBuffer[i] = valueBuffer[i];
+            for(int i = 0; i < shift; i++) {
+                setValue(voidValues[i], i);
             }
         }
         else {
-            for(int i = length - voidValues.length - 1; i >= 0; i--) {
-                valueBuffer[i] = valueBuffer[i + voidValues.length];
+            for(int i = 0; i < length - shift; i++) {
+                setValue(getValue(i + shift), i);
             }
-            for(int i = 0; i < voidValues.length; i++) {
-                valueBuffer[length - voidValues.length + i] = voidValues[i];
+            for(int i = 0; i < shift; i++) {
+                setValue(voidValues[i], length - shift + i);
             }
         }
-
-        for(LEDParent ledStrip : components) {
-            ledStrip.translateValues(direction, voidValues);
-        }
     }
 }
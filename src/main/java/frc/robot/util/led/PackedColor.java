@@ -0,0 +1,117 @@
+package frc.robot.util.led;
+
+import edu.wpi.first.wpilibj.util.Color;
+
+/**
+ * Packs colors into a single int as 0xRRGGBB, so LED buffers can be plain int arrays instead of arrays of Color.
+ */
+public final class PackedColor {
+
+    public static final int black = 0;
+
+    private PackedColor() {}
+
+    /**
+     * Packs a color.
+     * 
+     * @param red The red channel from 0 to 255.
+     * @param green The green channel from 0 to 255.
+     * @param blue The blue channel from 0 to 255.
+     * 
+     * @return The packed color.
+     */
+    public static int pack(int red, int green, int blue) {
+        return (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+    }
+
+    /**
+     * Packs a color.
+     * 
+     * @param color The color to pack.
+     * 
+     * @return The packed color.
+     */
+    public static int pack(Color color) {
+        return pack(toChannel(color.red), toChannel(color.green), toChannel(color.blue));
+    }
+
+    private static int toChannel(double value) {
+        return (int)(Math.max(0.0, Math.min(1.0, value)) * 255.0 + 0.5);
+    }
+
+    public static int red(int rgb) {
+        return (rgb >> 16) & 0xFF;
+    }
+
+    public static int green(int rgb) {
+        return (rgb >> 8) & 0xFF;
+    }
+
+    public static int blue(int rgb) {
+        return rgb & 0xFF;
+    }
+
+    /**
+     * Packs a color from hue, saturation and value, the same as Color.fromHSV() without allocating a Color.
+     * 
+     * @param hue The hue from 0 to 180.
+     * @param saturation The saturation from 0 to 255.
+     * @param value The value from 0 to 255.
+     * 
+     * @return The packed color.
+     */
+    public static int fromHSV(int hue, int saturation, int value) {
+        if(saturation == 0) return pack(value, value, value);
+
+        // The hue is split into six regions of 30, and the remainder is scaled from 0 to 180.
+        int region = hue / 30;
+        int remainder = (hue - region * 30) * 6;
+
+        int p = (value * (255 - saturation)) >> 8;
+        int q = (value * (255 - ((saturation * remainder) >> 8))) >> 8;
+        int t = (value * (255 - ((saturation * (255 - remainder)) >> 8))) >> 8;
+
+        switch(region) {
+            case 0:
+                return pack(value, t, p);
+            case 1:
+                return pack(q, value, p);
+            case 2:
+                return pack(p, value, t);
+            case 3:
+                return pack(p, q, value);
+            case 4:
+                return pack(t, p, value);
+            default:
+                return pack(value, p, q);
+        }
+    }
+
+    /**
+     * Unpacks a color into a new Color.
+     * 
+     * @param rgb The packed color.
+     * 
+     * @return The color.
+     */
+    public static Color toColor(int rgb) {
+        return new Color(red(rgb), green(rgb), blue(rgb));
+    }
+
+    /**
+     * Scales each channel of a color, such as by a value and brightness.
+     * 
+     * @param rgb The packed color.
+     * @param factor The factor from 0 to 1.
+     * 
+     * @return The scaled packed color.
+     */
+    public static int scale(int rgb, double factor) {
+        if(factor >= 1.0) return rgb;
+        if(factor <= 0.0) return black;
+
+        // Scales in fixed point so the three channels share one multiply each.
+        int scale = (int)(factor * 256.0);
+        return pack((red(rgb) * scale) >> 8, (green(rgb) * scale) >> 8, (blue(rgb) * scale) >> 8);
+    }
+}
@@ -0,0 +1,224 @@
+package frc.robot.util.limelight;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * Sends requests to the Limelight REST API on a small, bounded pool of background threads.
+ * 
+ * <p>Requests never run on the calling thread. The pool has a fixed number of low-priority threads and a
+ * bounded queue, and requests that do not fit are completed with false instead of waiting. Each request has
+ * a connect and read timeout. A request that matches one already queued or running, such as a second snapshot
+ * with the same name during a burst, gets the future of the first instead of a new request.
+ */
+public class LimelightHttpClient {
+
+    private static final LimelightHttpClient instance =
+        new LimelightHttpClient(
+            VisionConstants.httpThreadCount,
+            VisionConstants.httpQueueCapacity,
+            VisionConstants.httpConnectTimeoutMs,
+            VisionConstants.httpReadTimeoutMs,
+            "http://%s.local:5807/%s");
+
+    /**
+     * Returns the LimelightHttpClient shared by the robot.
+     * 
+     * @return The LimelightHttpClient.
+     */
+    public static LimelightHttpClient getInstance() {
+        return instance;
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    // Requests queued or running, by limelight name, endpoint and snapshot name.
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    private final String urlFormat;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong succeededCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    /**
+     * Creates a new LimelightHttpClient.
+     * 
+     * @param threadCount The number of threads sending requests.
+     * @param queueCapacity The number of requests that can wait for a thread.
+     * @param connectTimeoutMs The connect timeout of each request in milliseconds.
+     * @param readTimeoutMs The read timeout of each request in milliseconds.
+     * @param urlFormat The format of request URLs, taking the Limelight name and then the endpoint.
+     *                  Can point at a local server when testing.
+     */
+    public LimelightHttpClient(int threadCount, int queueCapacity, int connectTimeoutMs, int readTimeoutMs, String urlFormat) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.urlFormat = urlFormat;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "LimelightHttp-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Asks a Limelight to capture a snapshot.
+     * 
+     * @param limelightName The name of the Limelight.
+     * @param snapshotName The name of the snapshot, or null or empty for the default name.
+     * 
+     * @return A future completed with true if the Limelight accepted the request.
+     */
+    public CompletableFuture<Boolean> takeSnapshot(String limelightName, String snapshotName) {
+        return request(limelightName, "capturesnapshot", snapshotName);
+    }
+
+    /**
+     * Sends a GET request to a Limelight endpoint.
+     * 
+     * @param limelightName The name of the Limelight.
+     * @param endpoint The endpoint, such as "capturesnapshot".
+     * @param snapshotName The value of the snapname header, or null or empty to leave it out.
+     * 
+     * @return A future completed with true if the Limelight responded with 200, or false if the request
+     *         failed, timed out or was rejected because the queue was full.
+     */
+    public CompletableFuture<Boolean> request(String limelightName, String endpoint, String snapshotName) {
+        requestCount.incrementAndGet();
+
+        String key = LimelightHelpers.sanitizeName(limelightName) + "/" + endpoint + "/" + (snapshotName == null ? "" : snapshotName);
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> inFlightFuture = inFlightRequests.putIfAbsent(key, future);
+        if(inFlightFuture != null) {
+            deduplicatedCount.incrementAndGet();
+            return inFlightFuture;
+        }
+
+        try {
+            executor.execute(() -> {
+                // The key is always removed, so a request that throws cannot leave later ones deduplicated forever.
+                boolean succeeded = false;
+                try {
+                    succeeded = send(limelightName, endpoint, snapshotName);
+                }
+                finally {
+                    inFlightRequests.remove(key, future);
+                    future.complete(succeeded);
+                }
+            });
+        }
+        catch(RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            inFlightRequests.remove(key, future);
+            future.complete(false);
+        }
+
+        return future;
+    }
+
+    /**
+     * Sends a request on the calling thread.
+     * 
+     * @return True if the Limelight responded with 200.
+     */
+    private boolean send(String limelightName, String endpoint, String snapshotName) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+
+        HttpURLConnection connection = null;
+        try {
+            URL url = new URL(String.format(urlFormat, LimelightHelpers.sanitizeName(limelightName), endpoint));
+            connection = (HttpURLConnection)url.openConnection();
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestMethod("GET");
+            if(snapshotName != null && !snapshotName.isEmpty()) {
+                connection.setRequestProperty("snapname", snapshotName);
+            }
+
+            succeeded = connection.getResponseCode() == 200;
+        }
+        catch(IOException | RuntimeException e) {
+            // RuntimeExceptions include a malformed URL or an illegal snapshot name header.
+            System.err.println("Limelight request " + endpoint + " failed: " + e.getMessage());
+        }
+        finally {
+            if(connection != null) connection.disconnect();
+        }
+
+        totalLatencyNanos.addAndGet(System.nanoTime() - start);
+        if(succeeded) succeededCount.incrementAndGet();
+        else failedCount.incrementAndGet();
+
+        return succeeded;
+    }
+
+    /** @return The number of requests made, including deduplicated and rejected ones. */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** @return The number of requests answered with the future of a request already in flight. */
+    public long getDeduplicatedCount() {
+        return deduplicatedCount.get();
+    }
+
+    /** @return The number of requests dropped because the queue was full. */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /** @return The number of requests the Limelight answered with 200. */
+    public long getSucceededCount() {
+        return succeededCount.get();
+    }
+
+    /** @return The number of requests that failed or timed out. */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /** @return The number of requests waiting for a thread. */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the average time of the requests that were sent.
+     * 
+     * @return The average latency in milliseconds.
+     */
+    public double getAverageLatencyMs() {
+        long sentCount = succeededCount.get() + failedCount.get();
+        return sentCount == 0 ? 0.0 : totalLatencyNanos.get() * 1e-6 / sentCount;
+    }
+}
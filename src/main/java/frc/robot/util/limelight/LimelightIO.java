@@ -0,0 +1,31 @@
+package frc.robot.util.limelight;
+
+import java.util.function.Consumer;
+
+/**
+ * The hardware layer of a Limelight. Vision only receives frames through this interface,
+ * so the same code can run against NetworkTables or against frames read back from a log.
+ */
+public interface LimelightIO {
+
+	/**
+	 * A single frame from a Limelight.
+	 */
+	public static class LimelightInputs {
+		/** FPGA time in seconds when the frame was published. */
+		public double timestampSec = 0.0;
+		/**
+		 * The botpose_wpiblue array as published by the Limelight: x, y, z, roll, pitch, yaw, total latency in ms,
+		 * tag count, tag span, average tag distance and average tag area, followed by data for each tag.
+		 */
+		public double[] botPoseWpiBlue = new double[0];
+	}
+
+	/**
+	 * Starts delivering every new frame to frameListener. Frames are pushed as they arrive rather than
+	 * polled, so none are missed between loops. The thread frameListener is called on depends on the IO.
+	 * 
+	 * @param frameListener Called with each new frame. The frame is not reused.
+	 */
+	public void start(Consumer<LimelightInputs> frameListener);
+}
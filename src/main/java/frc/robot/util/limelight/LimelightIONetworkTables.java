@@ -0,0 +1,64 @@
+package frc.robot.util.limelight;
+
+import java.util.EnumSet;
+import java.util.function.Consumer;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListener;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.replay.LogReplay;
+
+/**
+ * LimelightIO that listens to a Limelight's botpose_wpiblue topic over NetworkTables.
+ * 
+ * <p>Frames are delivered on the NetworkTables listener thread. Every frame is also recorded
+ * to the DataLog so the match can be replayed with LogReplay.
+ */
+public class LimelightIONetworkTables implements LimelightIO {
+
+	private final DoubleArraySubscriber botPoseSubscriber;
+
+	private final DoubleArrayLogEntry frameLog;
+
+	private NetworkTableListener listener;
+
+	/**
+	 * Creates a new LimelightIONetworkTables.
+	 * 
+	 * @param limelightName The name of the Limelight.
+	 */
+	public LimelightIONetworkTables(String limelightName) {
+		// Keeps duplicates so a robot sitting still does not look like a camera that stopped publishing.
+		botPoseSubscriber = NetworkTableInstance.getDefault()
+			.getTable(limelightName)
+			.getDoubleArrayTopic("botpose_wpiblue")
+			.subscribe(new double[0], PubSubOption.keepDuplicates(true));
+
+		frameLog = new DoubleArrayLogEntry(DataLogManager.getLog(), LogReplay.visionEntryPrefix + limelightName);
+	}
+
+	@Override
+	public void start(Consumer<LimelightInputs> frameListener) {
+		listener = NetworkTableListener.createListener(
+			botPoseSubscriber,
+			EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+			event -> {
+				NetworkTableValue value = event.valueData.value;
+				if(!value.isDoubleArray()) return;
+
+				// NetworkTables time is FPGA time in microseconds on the robot.
+				LimelightInputs frame = new LimelightInputs();
+				frame.timestampSec = value.getTime() * 1e-6;
+				frame.botPoseWpiBlue = value.getDoubleArray();
+
+				frameLog.append(LogReplay.packVisionFrame(frame), value.getTime());
+
+				frameListener.accept(frame);
+			});
+	}
+}
@@ -0,0 +1,27 @@
+package frc.robot.util.limelight;
+
+import java.util.function.Consumer;
+
+import frc.robot.replay.LogReplay;
+
+/**
+ * LimelightIO that delivers frames read back from a log. Frames are delivered on the thread that calls setLoggedFrame().
+ */
+public class LimelightIOReplay implements LimelightIO {
+
+	private Consumer<LimelightInputs> frameListener = frame -> {};
+
+	/**
+	 * Delivers a logged frame.
+	 * 
+	 * @param frame The logged frame, as written by LogReplay.packVisionFrame().
+	 */
+	public void setLoggedFrame(double[] frame) {
+		frameListener.accept(LogReplay.unpackVisionFrame(frame));
+	}
+
+	@Override
+	public void start(Consumer<LimelightInputs> frameListener) {
+		this.frameListener = frameListener;
+	}
+}
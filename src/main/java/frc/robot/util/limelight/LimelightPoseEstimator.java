@@ -7,57 +7,173 @@ package frc.robot.util.limelight;
 import java.util.Optional;
 
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
-import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.FieldConstants;
 import frc.robot.Constants.VisionConstants;
+import frc.robot.util.limelight.LimelightIO.LimelightInputs;
 
 public class LimelightPoseEstimator {
 
-	private final String limelightName;
+	// Indices into the botpose_wpiblue array.
+	private static final int latencyIndex = 6;
+	private static final int tagCountIndex = 7;
+	private static final int avgTagDistIndex = 9;
+	private static final int avgTagAreaIndex = 10;
+	private static final int firstTagIndex = 11;
+
+	// Each tag after firstTagIndex is id, txnc, tync, ta, distance to camera, distance to robot and ambiguity.
+	private static final int valuesPerTag = 7;
+	private static final int tagAmbiguityOffset = 6;
 
 	private final Transform2d poseOffset;
 
+	// The last single-tag pose that jumped too far from the estimate, and how many frames in a row have agreed with it.
+	private Pose2d lastJumpPose = null;
+	private int jumpFrameCount = 0;
+
 	/**
 	 * Creates a new LimelightPoseEstimator.
 	 * 
-	 * <p>LimelightPoseEstimator is a helper object for returning robot pose estimates from Limelights.
+	 * <p>LimelightPoseEstimator is a helper object for returning robot pose estimates from Limelight frames.
 	 * 
-	 * @param limelightName The name of the Limelight pipeline.
 	 * @param poseOffset A Transform2d to shift the Limelight pose if it is consistently off by a certain amount.
 	 */
-  	public LimelightPoseEstimator(String limelightName, Transform2d poseOffset) {
-		this.limelightName = limelightName;
+  	public LimelightPoseEstimator(Transform2d poseOffset) {
 		this.poseOffset = poseOffset;
 	}
 
 	/**
 	 * Creates a new LimelightPoseEstimator.
 	 * 
-	 * <p>LimelightPoseEstimator is a helper object for returning robot pose estimates from Limelights.
-	 * 
-	 * @param limelightName The name of the Limelight pipeline.
+	 * <p>LimelightPoseEstimator is a helper object for returning robot pose estimates from Limelight frames.
 	 */
-	public LimelightPoseEstimator(String limelightName) {
-		this(limelightName, new Transform2d());
+	public LimelightPoseEstimator() {
+		this(new Transform2d());
 	}
 
-	public Optional<Pose2d> getRobotPose() {
-		Pose2d limelightPose = LimelightHelpers.getBotPose2d_wpiBlue(limelightName);
-		// Returns empty if either no pose is given or if the area of the largest tag is less than the threshold. removed limelightPose.equals(new Pose2d()) ||
-		if(LimelightHelpers.getTA(limelightName) < VisionConstants.targetAreaPercentThreshold) {
+	/**
+	 * Returns the robot pose from a frame if the frame is usable.
+	 * 
+	 * <p>Frames are rejected if they have no tags or place the robot outside the field. Frames with a single tag
+	 * are also rejected if the tag is ambiguous, small, far away, or moves the robot too far from the current estimate.
+	 * A jump is accepted once enough single-tag frames in a row agree on it, so an estimate that is far off can still be
+	 * pulled back without a multi-tag frame.
+	 * 
+	 * @param frame The frame to read.
+	 * @param currentPose The current estimated pose of the robot.
+	 * 
+	 * @return The robot pose, or empty if the frame is rejected.
+	 */
+	public Optional<Pose2d> getRobotPose(LimelightInputs frame, Pose2d currentPose) {
+		double[] botPose = frame.botPoseWpiBlue;
+		if(botPose.length < firstTagIndex || botPose[tagCountIndex] < 1.0) {
 			return Optional.empty();
 		}
-		else {
-			return Optional.of(limelightPose.transformBy(poseOffset));
+
+		Pose2d limelightPose = new Pose2d(botPose[0], botPose[1], Rotation2d.fromDegrees(botPose[5])).transformBy(poseOffset);
+
+		if(
+			limelightPose.getX() < -VisionConstants.fieldBorderMarginMeters
+			|| limelightPose.getX() > FieldConstants.fieldLengthMeters + VisionConstants.fieldBorderMarginMeters
+			|| limelightPose.getY() < -VisionConstants.fieldBorderMarginMeters
+			|| limelightPose.getY() > FieldConstants.fieldWidthMeters + VisionConstants.fieldBorderMarginMeters
+		) {
+			return Optional.empty();
+		}
+
+		if(botPose[tagCountIndex] < 2.0) {
+			// Older firmware does not publish per-tag data, in which case ambiguity is not checked.
+			boolean isAmbiguous =
+				botPose.length >= firstTagIndex + valuesPerTag
+				&& botPose[firstTagIndex + tagAmbiguityOffset] > VisionConstants.maxSingleTagAmbiguity;
+
+			if(
+				isAmbiguous
+				|| botPose[avgTagAreaIndex] < VisionConstants.targetAreaPercentThreshold
+				|| botPose[avgTagDistIndex] > VisionConstants.maxSingleTagDistanceMeters
+			) {
+				return Optional.empty();
+			}
+
+			if(limelightPose.getTranslation().getDistance(currentPose.getTranslation()) > VisionConstants.maxSingleTagPoseJumpMeters) {
+				if(!isJumpConfirmed(limelightPose)) return Optional.empty();
+			}
+			else {
+				clearJump();
+			}
+		}
+
+		return Optional.of(limelightPose);
+	}
+
+	/**
+	 * Counts a single-tag pose that jumped too far from the estimate and returns whether enough frames in a row have
+	 * agreed on it. Each frame must be within VisionConstants.maxSingleTagJumpSpreadMeters of the last.
+	 * 
+	 * <p>Synchronized as frames from each Limelight arrive on their own thread.
+	 */
+	private synchronized boolean isJumpConfirmed(Pose2d limelightPose) {
+		if(
+			lastJumpPose == null
+			|| limelightPose.getTranslation().getDistance(lastJumpPose.getTranslation()) > VisionConstants.maxSingleTagJumpSpreadMeters
+		) {
+			jumpFrameCount = 0;
+		}
+
+		lastJumpPose = limelightPose;
+		jumpFrameCount++;
+
+		return jumpFrameCount >= VisionConstants.singleTagJumpConfirmFrameCount;
+	}
+
+	/**
+	 * Forgets the jump being counted, as a single-tag frame has agreed with the estimate.
+	 */
+	private synchronized void clearJump() {
+		lastJumpPose = null;
+		jumpFrameCount = 0;
+	}
+
+	/**
+	 * Returns the standard deviation of the x and y of a frame accepted by getRobotPose(), no less than
+	 * VisionConstants.minXYStdDevMeters.
+	 * 
+	 * @param frame The frame to read.
+	 * 
+	 * @return The standard deviation in meters.
+	 */
+	public double getXYStdDevMeters(LimelightInputs frame) {
+		double[] botPose = frame.botPoseWpiBlue;
+		return Math.max(
+			VisionConstants.minXYStdDevMeters,
+			VisionConstants.xyStdDevCoefficient * botPose[avgTagDistIndex] * botPose[avgTagDistIndex] / botPose[tagCountIndex]);
+	}
+
+	/**
+	 * Returns the standard deviation of the heading of a frame accepted by getRobotPose(), no less than
+	 * VisionConstants.minThetaStdDevRad.
+	 * 
+	 * @param frame The frame to read.
+	 * 
+	 * @return The standard deviation in radians.
+	 */
+	public double getThetaStdDevRad(LimelightInputs frame) {
+		double[] botPose = frame.botPoseWpiBlue;
+		if(botPose[tagCountIndex] < 2.0) {
+			return VisionConstants.singleTagThetaStdDevRad;
 		}
+		return Math.max(
+			VisionConstants.minThetaStdDevRad,
+			VisionConstants.thetaStdDevCoefficient * botPose[avgTagDistIndex] * botPose[avgTagDistIndex] / botPose[tagCountIndex]);
 	}
 
-	public double getLatencySec() {
-		return (LimelightHelpers.getLatency_Capture(limelightName) + LimelightHelpers.getLatency_Pipeline(limelightName)) * 0.001;
+	public double getLatencySec(LimelightInputs frame) {
+		return frame.botPoseWpiBlue.length > latencyIndex ? frame.botPoseWpiBlue[latencyIndex] * 0.001 : 0.0;
 	}
 
-	public double getCaptureTimestamp() {
-		return Timer.getFPGATimestamp() - getLatencySec();
+	public double getCaptureTimestamp(LimelightInputs frame) {
+		return frame.timestampSec - getLatencySec(frame);
 	}
 
 }
@@ -0,0 +1,183 @@
+package frc.robot.util.limelight;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import frc.robot.util.limelight.LimelightHelpers.PoseEstimate;
+
+/**
+ * Reads a single Limelight through subscribers created once, instead of looking up the table and entry by name on every call
+ * like LimelightHelpers.
+ * 
+ * <p>Scalar reads do not allocate. The botpose array is only fetched from NetworkTables when it has changed, and
+ * readBotPoseWpiBlue() copies it into a buffer owned by the caller, so polling a camera every loop makes no garbage.
+ * getBotPoseEstimate_wpiBlue() returns the same PoseEstimate every time, and only creates a new pose for a new frame.
+ * 
+ * <p>A LimelightReader is not thread-safe. Each thread that polls a camera should use its own reader.
+ */
+public class LimelightReader {
+
+    private final DoubleSubscriber txSubscriber;
+    private final DoubleSubscriber tySubscriber;
+    private final DoubleSubscriber taSubscriber;
+    private final DoubleSubscriber tvSubscriber;
+    private final DoubleSubscriber latencyPipelineSubscriber;
+    private final DoubleSubscriber latencyCaptureSubscriber;
+
+    private final DoubleArraySubscriber botPoseWpiBlueSubscriber;
+    private final DoubleArraySubscriber targetPoseRobotSpaceSubscriber;
+
+    // The last botpose array fetched and the NetworkTables time it was published, in microseconds.
+    private double[] botPoseWpiBlue = new double[0];
+    private long botPoseWpiBlueChangeMicros = 0;
+
+    // The planar distance to the primary target from the last targetpose_robotspace array fetched.
+    private double targetDistanceMeters = 0.0;
+    private long targetPoseRobotSpaceChangeMicros = 0;
+
+    private final PoseEstimate poseEstimate = new PoseEstimate(new Pose2d(), 0.0, 0.0, 0, 0.0, 0.0, 0.0);
+    private long poseEstimateChangeMicros = -1;
+
+    /**
+     * Creates a new LimelightReader.
+     * 
+     * @param limelightName The name of the Limelight.
+     */
+    public LimelightReader(String limelightName) {
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(limelightName);
+
+        txSubscriber = table.getDoubleTopic("tx").subscribe(0.0);
+        tySubscriber = table.getDoubleTopic("ty").subscribe(0.0);
+        taSubscriber = table.getDoubleTopic("ta").subscribe(0.0);
+        tvSubscriber = table.getDoubleTopic("tv").subscribe(0.0);
+        // The Limelight publishes tl and botpose every frame, but NetworkTables drops a value equal to the last one
+        // unless the subscriber keeps duplicates. Without it, the change times would miss frames with the same latency
+        // or the same pose.
+        latencyPipelineSubscriber = table.getDoubleTopic("tl").subscribe(0.0, PubSubOption.keepDuplicates(true));
+        latencyCaptureSubscriber = table.getDoubleTopic("cl").subscribe(0.0);
+
+        botPoseWpiBlueSubscriber = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(new double[0], PubSubOption.keepDuplicates(true));
+        targetPoseRobotSpaceSubscriber = table.getDoubleArrayTopic("targetpose_robotspace").subscribe(new double[0]);
+    }
+
+    public double getTX() {
+        return txSubscriber.get();
+    }
+
+    public double getTY() {
+        return tySubscriber.get();
+    }
+
+    public double getTA() {
+        return taSubscriber.get();
+    }
+
+    public boolean getTV() {
+        return tvSubscriber.get() == 1.0;
+    }
+
+    public double getLatency_Pipeline() {
+        return latencyPipelineSubscriber.get();
+    }
+
+    public double getLatency_Capture() {
+        return latencyCaptureSubscriber.get();
+    }
+
+    /**
+     * Returns the time the latest frame was captured. This is the time its pipeline latency was received,
+     * minus the pipeline and capture latency.
+     * 
+     * @return The capture time in seconds, on the same clock as Timer.getFPGATimestamp().
+     */
+    public double getCaptureTimestampSec() {
+        return latencyPipelineSubscriber.getLastChange() * 1e-6 - (getLatency_Pipeline() + getLatency_Capture()) * 1e-3;
+    }
+
+    /**
+     * Returns the distance along the floor from the robot to the primary AprilTag, from targetpose_robotspace.
+     * 
+     * @return The distance in meters, or zero if no tag is in view.
+     */
+    public double getTargetDistanceMeters() {
+        long changeMicros = targetPoseRobotSpaceSubscriber.getLastChange();
+        if(changeMicros != targetPoseRobotSpaceChangeMicros) {
+            // Robot space is x forward, y right and z up.
+            double[] targetPose = targetPoseRobotSpaceSubscriber.get();
+            targetDistanceMeters = targetPose.length >= 2 ? Math.hypot(targetPose[0], targetPose[1]) : 0.0;
+            targetPoseRobotSpaceChangeMicros = changeMicros;
+        }
+        return targetDistanceMeters;
+    }
+
+    /**
+     * Fetches the botpose array from NetworkTables if it has changed since the last fetch.
+     */
+    private void refreshBotPoseWpiBlue() {
+        if(botPoseWpiBlueSubscriber.getLastChange() == botPoseWpiBlueChangeMicros) return;
+
+        // Reads the value and its time together, in case a new frame arrives in between.
+        TimestampedDoubleArray botPose = botPoseWpiBlueSubscriber.getAtomic();
+        botPoseWpiBlue = botPose.value;
+        botPoseWpiBlueChangeMicros = botPose.timestamp;
+    }
+
+    /**
+     * Returns the NetworkTables time the current botpose array was published.
+     * 
+     * @return The time in microseconds.
+     */
+    public long getBotPoseWpiBlueChangeMicros() {
+        refreshBotPoseWpiBlue();
+        return botPoseWpiBlueChangeMicros;
+    }
+
+    /**
+     * Copies the botpose_wpiblue array into buffer.
+     * 
+     * @param buffer The buffer to copy into. If it is shorter than the array, only the start of the array is copied.
+     * 
+     * @return The length of the whole array, which may be more or less than the buffer.
+     */
+    public int readBotPoseWpiBlue(double[] buffer) {
+        refreshBotPoseWpiBlue();
+        System.arraycopy(botPoseWpiBlue, 0, buffer, 0, Math.min(buffer.length, botPoseWpiBlue.length));
+        return botPoseWpiBlue.length;
+    }
+
+    /**
+     * Returns the robot pose estimate from botpose_wpiblue.
+     * 
+     * <p>The same PoseEstimate is returned and updated on every call, so it should not be kept across calls.
+     * 
+     * @return The pose estimate.
+     */
+    public PoseEstimate getBotPoseEstimate_wpiBlue() {
+        refreshBotPoseWpiBlue();
+        if(botPoseWpiBlueChangeMicros == poseEstimateChangeMicros) return poseEstimate;
+
+        double[] botPose = botPoseWpiBlue;
+        poseEstimate.pose =
+            botPose.length < 6
+            ? new Pose2d()
+            : new Pose2d(botPose[0], botPose[1], Rotation2d.fromDegrees(botPose[5]));
+        poseEstimate.latency = getBotPoseEntry(botPose, 6);
+        poseEstimate.tagCount = (int)getBotPoseEntry(botPose, 7);
+        poseEstimate.tagSpan = getBotPoseEntry(botPose, 8);
+        poseEstimate.avgTagDist = getBotPoseEntry(botPose, 9);
+        poseEstimate.avgTagArea = getBotPoseEntry(botPose, 10);
+        // NetworkTables time in microseconds, Limelight latency in milliseconds.
+        poseEstimate.timestampSeconds = botPoseWpiBlueChangeMicros * 1e-6 - poseEstimate.latency * 1e-3;
+
+        poseEstimateChangeMicros = botPoseWpiBlueChangeMicros;
+        return poseEstimate;
+    }
+
+    private static double getBotPoseEntry(double[] botPose, int index) {
+        return index < botPose.length ? botPose[index] : 0.0;
+    }
+}
@@ -0,0 +1,177 @@
+package frc.robot.util.limelight;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import frc.robot.util.limelight.LimelightHelpers.LimelightResults;
+import frc.robot.util.limelight.LimelightHelpers.LimelightTarget_Barcode;
+import frc.robot.util.limelight.LimelightHelpers.LimelightTarget_Classifier;
+import frc.robot.util.limelight.LimelightHelpers.LimelightTarget_Detector;
+import frc.robot.util.limelight.LimelightHelpers.LimelightTarget_Fiducial;
+import frc.robot.util.limelight.LimelightHelpers.LimelightTarget_Retro;
+import frc.robot.util.limelight.LimelightHelpers.Results;
+
+/**
+ * Parses the Limelight JSON dump one token at a time, keeping only the target types asked for.
+ * 
+ * <p>LimelightHelpers.getLatestResults() binds the whole dump with an ObjectMapper, creating an object for
+ * every retro, fiducial, classifier, detector and barcode target. This parser reads the scalar and botpose
+ * fields of Results directly, binds only the requested target arrays and skips everything else without
+ * building it. Target arrays that are not requested are left empty.
+ */
+public final class LimelightResultsParser {
+
+    /**
+     * The target arrays in the Limelight results.
+     */
+    public enum ResultType {
+        RETRO,
+        FIDUCIAL,
+        CLASSIFIER,
+        DETECTOR,
+        BARCODE
+    }
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    // Only used to bind the requested target arrays.
+    private static final ObjectMapper mapper =
+        new ObjectMapper(factory).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private LimelightResultsParser() {}
+
+    /**
+     * Reads the JSON dump of a Limelight and parses it, keeping only the given target types.
+     * 
+     * @param limelightName The name of the Limelight.
+     * @param types The target types to parse.
+     * 
+     * @return The results. latency_jsonParse is set to the parse time in milliseconds.
+     */
+    public static LimelightResults getLatestResults(String limelightName, Set<ResultType> types) {
+        long start = System.nanoTime();
+
+        LimelightResults results = parse(LimelightHelpers.getJSONDump(limelightName), types);
+
+        results.targetingResults.latency_jsonParse = (System.nanoTime() - start) * 0.000001;
+        return results;
+    }
+
+    /**
+     * Parses a Limelight JSON dump, keeping only the given target types.
+     * 
+     * @param json The JSON dump.
+     * @param types The target types to parse.
+     * 
+     * @return The results. If the dump cannot be parsed, error is set and the fields read so far are kept.
+     */
+    public static LimelightResults parse(String json, Set<ResultType> types) {
+        LimelightResults results = new LimelightResults();
+
+        try(JsonParser parser = factory.createParser(json)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT) {
+                results.error = "lljson error: expected an object";
+                return results;
+            }
+
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                if(name.equals("Results") && parser.currentToken() == JsonToken.START_OBJECT) {
+                    parseResults(parser, results.targetingResults, types);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        catch(IOException e) {
+            results.error = "lljson error: " + e.getMessage();
+        }
+
+        return results;
+    }
+
+    /**
+     * Parses the fields of the Results object. The parser must be on the START_OBJECT of Results.
+     */
+    private static void parseResults(JsonParser parser, Results results, Set<ResultType> types) throws IOException {
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+
+            switch(name) {
+                case "pID": results.pipelineID = parser.getValueAsDouble(); break;
+                case "tl": results.latency_pipeline = parser.getValueAsDouble(); break;
+                case "cl": results.latency_capture = parser.getValueAsDouble(); break;
+                case "ts": results.timestamp_LIMELIGHT_publish = parser.getValueAsDouble(); break;
+                case "ts_rio": results.timestamp_RIOFPGA_capture = parser.getValueAsDouble(); break;
+                case "v": results.valid = parser.getValueAsInt() == 1; break;
+                case "botpose": results.botpose = readDoubleArray(parser, results.botpose); break;
+                case "botpose_wpired": results.botpose_wpired = readDoubleArray(parser, results.botpose_wpired); break;
+                case "botpose_wpiblue": results.botpose_wpiblue = readDoubleArray(parser, results.botpose_wpiblue); break;
+                case "botpose_tagcount": results.botpose_tagcount = parser.getValueAsDouble(); break;
+                case "botpose_span": results.botpose_span = parser.getValueAsDouble(); break;
+                case "botpose_avgdist": results.botpose_avgdist = parser.getValueAsDouble(); break;
+                case "botpose_avgarea": results.botpose_avgarea = parser.getValueAsDouble(); break;
+                case "t6c_rs": results.camerapose_robotspace = readDoubleArray(parser, results.camerapose_robotspace); break;
+                case "Retro":
+                    if(types.contains(ResultType.RETRO)) results.targets_Retro = mapper.readValue(parser, LimelightTarget_Retro[].class);
+                    else parser.skipChildren();
+                    break;
+                case "Fiducial":
+                    if(types.contains(ResultType.FIDUCIAL)) results.targets_Fiducials = mapper.readValue(parser, LimelightTarget_Fiducial[].class);
+                    else parser.skipChildren();
+                    break;
+                case "Classifier":
+                    if(types.contains(ResultType.CLASSIFIER)) results.targets_Classifier = mapper.readValue(parser, LimelightTarget_Classifier[].class);
+                    else parser.skipChildren();
+                    break;
+                case "Detector":
+                    if(types.contains(ResultType.DETECTOR)) results.targets_Detector = mapper.readValue(parser, LimelightTarget_Detector[].class);
+                    else parser.skipChildren();
+                    break;
+                case "Barcode":
+                    if(types.contains(ResultType.BARCODE)) results.targets_Barcode = mapper.readValue(parser, LimelightTarget_Barcode[].class);
+                    else parser.skipChildren();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reads an array of numbers. The parser must be on the START_ARRAY of the array.
+     * 
+     * @param parser The parser.
+     * @param defaultValue Returned if the value is not an array.
+     * 
+     * @return The numbers in the array.
+     */
+    private static double[] readDoubleArray(JsonParser parser, double[] defaultValue) throws IOException {
+        if(parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return defaultValue;
+        }
+
+        double[] values = new double[16];
+        int count = 0;
+        while(parser.nextToken() != JsonToken.END_ARRAY) {
+            if(count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = parser.getValueAsDouble();
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
@@ -0,0 +1,314 @@
+package frc.robot.util.limelight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.swerve.PoseHistory;
+
+/**
+ * Stands in for a Limelight in simulation.
+ *
+ * <p>Frames are rendered at the frame rate on a Notifier from the simulated robot pose and the AprilTag field layout.
+ * They are published to the same NetworkTables table a Limelight uses, so LimelightHelpers, LimelightReader and
+ * VisionSys run unchanged. Each frame shows the robot where it was one latency ago, and reports that latency in tl, cl
+ * and botpose_wpiblue, like a real camera.
+ */
+public class LimelightSim implements AutoCloseable {
+
+    // The side length of the black square of a 36h11 tag.
+    private static final double tagSizeMeters = 0.1651;
+
+    // The ambiguity reported for every tag. The simulation has no pose ambiguity.
+    private static final double tagAmbiguity = 0.05;
+
+    private static AprilTagFieldLayout fieldLayout;
+
+    private final Transform3d robotToCamera;
+
+    private final Supplier<Pose2d> poseSupplier;
+
+    private final double latencySec;
+    private final double pipelineLatencyMs;
+    private final double captureLatencyMs;
+
+    private final double txNoiseStdDevDeg;
+
+    private final double horizontalFovRad;
+    private final double verticalFovRad;
+
+    private final Random random = new Random();
+
+    // Poses from earlier frames, so each frame can show the robot where it was one latency ago.
+    private final PoseHistory poseHistory;
+    private final double[] capturePose = new double[3];
+
+    private final DoubleArrayPublisher botPoseWpiBluePublisher;
+    private final DoubleArrayPublisher targetPoseRobotSpacePublisher;
+    private final DoublePublisher txPublisher;
+    private final DoublePublisher tyPublisher;
+    private final DoublePublisher taPublisher;
+    private final DoublePublisher tvPublisher;
+    private final DoublePublisher tidPublisher;
+    private final DoublePublisher latencyPipelinePublisher;
+    private final DoublePublisher latencyCapturePublisher;
+
+    private final Notifier notifier;
+
+    // The tags seen in the current frame, reused between frames.
+    private final List<VisibleTag> visibleTags = new ArrayList<>();
+
+    private static class VisibleTag {
+        int id;
+        double txDeg;
+        double tyDeg;
+        double areaPercent;
+        double distanceToCameraMeters;
+        double distanceToRobotMeters;
+        Pose3d pose;
+        Transform3d robotToTag;
+    }
+
+    /**
+     * Creates a new LimelightSim with the frame rate, latency and noise in VisionConstants and starts publishing.
+     *
+     * @param limelightName The name of the Limelight to stand in for.
+     * @param robotToCamera The position of the camera on the robot.
+     * @param poseSupplier The pose of the simulated robot. It is called from the notifier thread.
+     */
+    public LimelightSim(String limelightName, Transform3d robotToCamera, Supplier<Pose2d> poseSupplier) {
+        this(
+            limelightName,
+            robotToCamera,
+            poseSupplier,
+            VisionConstants.simFrameRateHz,
+            VisionConstants.simPipelineLatencyMs,
+            VisionConstants.simCaptureLatencyMs,
+            VisionConstants.simTxNoiseStdDevDeg);
+    }
+
+    /**
+     * Creates a new LimelightSim and starts publishing.
+     *
+     * @param limelightName The name of the Limelight to stand in for.
+     * @param robotToCamera The position of the camera on the robot.
+     * @param poseSupplier The pose of the simulated robot. It is called from the notifier thread.
+     * @param frameRateHz The rate frames are published.
+     * @param pipelineLatencyMs The time to process a frame in milliseconds.
+     * @param captureLatencyMs The time to capture a frame in milliseconds.
+     * @param txNoiseStdDevDeg The standard deviation of the noise added to tx and ty in degrees.
+     */
+    public LimelightSim(
+        String limelightName,
+        Transform3d robotToCamera,
+        Supplier<Pose2d> poseSupplier,
+        double frameRateHz,
+        double pipelineLatencyMs,
+        double captureLatencyMs,
+        double txNoiseStdDevDeg
+    ) {
+        this.robotToCamera = robotToCamera;
+        this.poseSupplier = poseSupplier;
+        this.pipelineLatencyMs = pipelineLatencyMs;
+        this.captureLatencyMs = captureLatencyMs;
+        this.txNoiseStdDevDeg = txNoiseStdDevDeg;
+
+        latencySec = (pipelineLatencyMs + captureLatencyMs) * 1e-3;
+
+        horizontalFovRad = Math.toRadians(VisionConstants.simHorizontalFovDeg);
+        verticalFovRad = Math.toRadians(VisionConstants.simVerticalFovDeg);
+
+        // Keeps a little more than one latency of frames.
+        poseHistory = new PoseHistory((int)Math.ceil(latencySec * frameRateHz) + 2);
+
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(limelightName);
+
+        // Keeps duplicates so a robot sitting still still produces frames.
+        botPoseWpiBluePublisher = table.getDoubleArrayTopic("botpose_wpiblue").publish(PubSubOption.keepDuplicates(true));
+        targetPoseRobotSpacePublisher = table.getDoubleArrayTopic("targetpose_robotspace").publish();
+        txPublisher = table.getDoubleTopic("tx").publish();
+        tyPublisher = table.getDoubleTopic("ty").publish();
+        taPublisher = table.getDoubleTopic("ta").publish();
+        tvPublisher = table.getDoubleTopic("tv").publish();
+        tidPublisher = table.getDoubleTopic("tid").publish();
+        latencyPipelinePublisher = table.getDoubleTopic("tl").publish(PubSubOption.keepDuplicates(true));
+        latencyCapturePublisher = table.getDoubleTopic("cl").publish();
+
+        notifier = new Notifier(this::publishFrame);
+        notifier.setName("LimelightSim " + limelightName);
+        notifier.startPeriodic(1.0 / frameRateHz);
+    }
+
+    /**
+     * Returns the field layout, loading it the first time.
+     */
+    private static synchronized AprilTagFieldLayout getFieldLayout() {
+        if(fieldLayout == null) {
+            fieldLayout = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField);
+        }
+        return fieldLayout;
+    }
+
+    /**
+     * Renders a frame from the pose of the robot one latency ago and publishes it.
+     */
+    private void publishFrame() {
+        double timestampSec = Timer.getFPGATimestamp();
+
+        Pose2d pose = poseSupplier.get();
+        poseHistory.add(timestampSec, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+
+        if(!poseHistory.sample(timestampSec - latencySec, capturePose)) return;
+
+        Pose3d robotPose = new Pose3d(new Pose2d(capturePose[0], capturePose[1], new Rotation2d(capturePose[2])));
+        Pose3d cameraPose = robotPose.plus(robotToCamera);
+
+        findVisibleTags(robotPose, cameraPose);
+
+        VisibleTag primaryTag = null;
+        for(VisibleTag tag : visibleTags) {
+            if(primaryTag == null || tag.areaPercent > primaryTag.areaPercent) primaryTag = tag;
+        }
+
+        if(primaryTag == null) {
+            txPublisher.set(0.0);
+            tyPublisher.set(0.0);
+            taPublisher.set(0.0);
+            tvPublisher.set(0.0);
+            tidPublisher.set(-1.0);
+            targetPoseRobotSpacePublisher.set(new double[6]);
+        }
+        else {
+            txPublisher.set(primaryTag.txDeg + random.nextGaussian() * txNoiseStdDevDeg);
+            tyPublisher.set(primaryTag.tyDeg + random.nextGaussian() * txNoiseStdDevDeg);
+            taPublisher.set(primaryTag.areaPercent);
+            tvPublisher.set(1.0);
+            tidPublisher.set(primaryTag.id);
+
+            // Limelight robot space is x forward, y right and z up.
+            Transform3d robotToTag = primaryTag.robotToTag;
+            targetPoseRobotSpacePublisher.set(new double[] {
+                robotToTag.getX(),
+                -robotToTag.getY(),
+                robotToTag.getZ(),
+                Math.toDegrees(robotToTag.getRotation().getX()),
+                Math.toDegrees(robotToTag.getRotation().getY()),
+                Math.toDegrees(robotToTag.getRotation().getZ())
+            });
+        }
+
+        botPoseWpiBluePublisher.set(getBotPose(robotPose));
+
+        latencyCapturePublisher.set(captureLatencyMs);
+        latencyPipelinePublisher.set(pipelineLatencyMs);
+    }
+
+    /**
+     * Fills visibleTags with the tags in the field of view of the camera that are facing it.
+     */
+    private void findVisibleTags(Pose3d robotPose, Pose3d cameraPose) {
+        visibleTags.clear();
+
+        for(AprilTag tag : getFieldLayout().getTags()) {
+            // WPILib camera space is x forward, y left and z up.
+            Transform3d cameraToTag = new Transform3d(cameraPose, tag.pose);
+            double distanceMeters = cameraToTag.getTranslation().getNorm();
+            if(cameraToTag.getX() <= 0.0 || distanceMeters > VisionConstants.simMaxTagDistanceMeters) continue;
+
+            double yawRad = Math.atan2(cameraToTag.getY(), cameraToTag.getX());
+            double pitchRad = Math.atan2(cameraToTag.getZ(), Math.hypot(cameraToTag.getX(), cameraToTag.getY()));
+            if(Math.abs(yawRad) > horizontalFovRad / 2.0 || Math.abs(pitchRad) > verticalFovRad / 2.0) continue;
+
+            // The front of a tag faces along its x axis, so the camera must be in front of it.
+            Transform3d tagToCamera = new Transform3d(tag.pose, cameraPose);
+            if(tagToCamera.getX() <= 0.0) continue;
+
+            VisibleTag visibleTag = new VisibleTag();
+            visibleTag.id = tag.ID;
+            // tx is positive to the right and ty is positive up.
+            visibleTag.txDeg = -Math.toDegrees(yawRad);
+            visibleTag.tyDeg = Math.toDegrees(pitchRad);
+            // The share of the image the tag covers, smaller when it is seen at an angle.
+            double angularSizeRad = tagSizeMeters / distanceMeters;
+            visibleTag.areaPercent =
+                100.0 * angularSizeRad * angularSizeRad * (tagToCamera.getX() / distanceMeters)
+                / (horizontalFovRad * verticalFovRad);
+            visibleTag.distanceToCameraMeters = distanceMeters;
+            visibleTag.robotToTag = new Transform3d(robotPose, tag.pose);
+            visibleTag.distanceToRobotMeters = visibleTag.robotToTag.getTranslation().getNorm();
+            visibleTag.pose = tag.pose;
+
+            visibleTags.add(visibleTag);
+        }
+    }
+
+    /**
+     * Builds the botpose_wpiblue array for the visible tags, with the robot pose blurred by noise.
+     */
+    private double[] getBotPose(Pose3d robotPose) {
+        int tagCount = visibleTags.size();
+        double[] botPose = new double[11 + 7 * tagCount];
+
+        botPose[6] = pipelineLatencyMs + captureLatencyMs;
+        if(tagCount == 0) return botPose;
+
+        double tagSpanMeters = 0.0;
+        double totalDistanceMeters = 0.0;
+        double totalAreaPercent = 0.0;
+        for(int i = 0; i < tagCount; i++) {
+            VisibleTag tag = visibleTags.get(i);
+
+            totalDistanceMeters += tag.distanceToCameraMeters;
+            totalAreaPercent += tag.areaPercent;
+            for(int j = i + 1; j < tagCount; j++) {
+                tagSpanMeters = Math.max(tagSpanMeters, tag.pose.getTranslation().getDistance(visibleTags.get(j).pose.getTranslation()));
+            }
+
+            int index = 11 + 7 * i;
+            botPose[index] = tag.id;
+            botPose[index + 1] = tag.txDeg;
+            botPose[index + 2] = tag.tyDeg;
+            botPose[index + 3] = tag.areaPercent;
+            botPose[index + 4] = tag.distanceToCameraMeters;
+            botPose[index + 5] = tag.distanceToRobotMeters;
+            botPose[index + 6] = tagAmbiguity;
+        }
+
+        double avgDistanceMeters = totalDistanceMeters / tagCount;
+        double noiseScale = avgDistanceMeters * avgDistanceMeters / tagCount;
+
+        botPose[0] = robotPose.getX() + random.nextGaussian() * VisionConstants.simXYNoiseCoefficient * noiseScale;
+        botPose[1] = robotPose.getY() + random.nextGaussian() * VisionConstants.simXYNoiseCoefficient * noiseScale;
+        botPose[5] = Math.toDegrees(
+            robotPose.getRotation().getZ() + random.nextGaussian() * VisionConstants.simThetaNoiseCoefficient * noiseScale);
+        botPose[7] = tagCount;
+        botPose[8] = tagSpanMeters;
+        botPose[9] = avgDistanceMeters;
+        botPose[10] = totalAreaPercent / tagCount;
+
+        return botPose;
+    }
+
+    /**
+     * Stops publishing frames.
+     */
+    @Override
+    public void close() {
+        notifier.close();
+    }
+}
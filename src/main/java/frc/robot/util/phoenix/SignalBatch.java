@@ -0,0 +1,63 @@
+package frc.robot.util.phoenix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+
+/**
+ * Groups Phoenix 6 status signals so they can be refreshed together.
+ * 
+ * <p>Refreshing every signal with one call means each device is read once per cycle and
+ * all values share the same refresh time, instead of each getter doing its own fetch.
+ */
+public class SignalBatch {
+
+    private final List<BaseStatusSignal> registeredSignals = new ArrayList<>();
+
+    private BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    /**
+     * Adds signals to the batch and sets how often the devices should send them.
+     * 
+     * @param updateFrequencyHz The rate the devices should publish the signals at.
+     * @param signals The signals to add.
+     */
+    public void register(double updateFrequencyHz, BaseStatusSignal... signals) {
+        BaseStatusSignal.setUpdateFrequencyForAll(updateFrequencyHz, signals);
+
+        for(BaseStatusSignal signal : signals) {
+            registeredSignals.add(signal);
+        }
+
+        this.signals = registeredSignals.toArray(new BaseStatusSignal[0]);
+    }
+
+    /**
+     * Refreshes every registered signal with the latest value received from its device.
+     * This does not wait for new data.
+     * 
+     * <p>Does nothing when no signals are registered, as in simulation and replay. Phoenix reports an error for an
+     * empty refresh, which would otherwise be sent on every odometry sample.
+     * 
+     * @return The worst status code of the refreshed signals, or OK if there are none.
+     */
+    public StatusCode refresh() {
+        if(signals.length == 0) return StatusCode.OK;
+
+        return BaseStatusSignal.refreshAll(signals);
+    }
+
+    /**
+     * Returns the value of a signal extrapolated to the current time using its rate of change.
+     * 
+     * @param signal The signal to compensate.
+     * @param signalSlope The rate of change of the signal, in the signal's units per second.
+     * 
+     * @return The latency compensated value, in the signal's units.
+     */
+    public static double getLatencyCompensatedValue(BaseStatusSignal signal, BaseStatusSignal signalSlope) {
+        return signal.getValueAsDouble() + signalSlope.getValueAsDouble() * signal.getTimestamp().getLatency();
+    }
+}
@@ -0,0 +1,230 @@
+package frc.robot.util.profiling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.TelemetryConstants;
+
+/**
+ * Measures how long each part of the robot loop takes.
+ * 
+ * <p>Subsystems bracket their periodic() with a {@link Section}, and every command's execute() is timed
+ * through the CommandScheduler. Each section keeps its last TelemetryConstants.profilerWindowSize samples,
+ * and the p50, p99 and max of that window are published to the "LoopProfiler" table. Whenever a cycle
+ * runs over TelemetryConstants.loopBudgetSec, the time of every section in that cycle is written to the
+ * DataLog so the cause can be found after the match.
+ * 
+ * <p>Everything here runs on the main thread.
+ */
+public class LoopProfiler {
+
+    private static final LoopProfiler instance = new LoopProfiler();
+
+    /**
+     * Returns the LoopProfiler of the robot.
+     * 
+     * @return The LoopProfiler.
+     */
+    public static LoopProfiler getInstance() {
+        return instance;
+    }
+
+    /**
+     * A timed part of the loop.
+     */
+    public class Section {
+        private final String name;
+
+        // Ring buffer of the latest samples in nanoseconds.
+        private final long[] samplesNanos = new long[TelemetryConstants.profilerWindowSize];
+        private int sampleCount = 0;
+        private int nextSample = 0;
+
+        private long startNanos = 0;
+
+        // Time spent in this section during lastCycle.
+        private long cycleNanos = 0;
+        private long lastCycle = -1;
+
+        private final DoublePublisher p50Publisher;
+        private final DoublePublisher p99Publisher;
+        private final DoublePublisher maxPublisher;
+
+        private Section(String name) {
+            this.name = name;
+
+            p50Publisher = table.getDoubleTopic(name + "/p50Ms").publish();
+            p99Publisher = table.getDoubleTopic(name + "/p99Ms").publish();
+            maxPublisher = table.getDoubleTopic(name + "/maxMs").publish();
+        }
+
+        /**
+         * Starts timing the section.
+         */
+        public void start() {
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Stops timing the section and records the time since start().
+         */
+        public void stop() {
+            record(System.nanoTime() - startNanos);
+        }
+
+        private void record(long nanos) {
+            samplesNanos[nextSample] = nanos;
+            nextSample = (nextSample + 1) % samplesNanos.length;
+            if(sampleCount < samplesNanos.length) sampleCount++;
+
+            if(lastCycle == cycle) {
+                cycleNanos += nanos;
+            }
+            else {
+                cycleNanos = nanos;
+                lastCycle = cycle;
+            }
+        }
+
+        private void publish() {
+            if(sampleCount == 0) return;
+
+            System.arraycopy(samplesNanos, 0, sortedNanos, 0, sampleCount);
+            Arrays.sort(sortedNanos, 0, sampleCount);
+
+            p50Publisher.set(sortedNanos[(int)(0.50 * (sampleCount - 1))] * 1e-6);
+            p99Publisher.set(sortedNanos[(int)Math.ceil(0.99 * (sampleCount - 1))] * 1e-6);
+            maxPublisher.set(sortedNanos[sampleCount - 1] * 1e-6);
+        }
+    }
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+
+    private final Map<String, Section> sectionsByName = new HashMap<>();
+    private final List<Section> sections = new ArrayList<>();
+
+    // Scratch space for computing percentiles, shared by every section.
+    private final long[] sortedNanos = new long[TelemetryConstants.profilerWindowSize];
+
+    private final Section cycleSection;
+
+    private final StringBuilder overrunMessage = new StringBuilder();
+
+    private final long budgetNanos = (long)(TelemetryConstants.loopBudgetSec * 1e9);
+    private final long publishPeriodNanos = (long)(TelemetryConstants.profilerPublishPeriodSec * 1e9);
+    private long nextPublishNanos = 0;
+
+    private long cycle = 0;
+    private long cycleStartNanos = 0;
+
+    // Time of the end of the previous command's execute(), see onCommandExecute().
+    private long commandMarkNanos = 0;
+
+    private LoopProfiler() {
+        cycleSection = section("Cycle");
+    }
+
+    /**
+     * Returns the section with the given name, creating it if needed.
+     * 
+     * @param name The name of the section, such as "SwerveSys.periodic".
+     * 
+     * @return The section.
+     */
+    public Section section(String name) {
+        Section section = sectionsByName.get(name);
+        if(section == null) {
+            section = new Section(name);
+            sectionsByName.put(name, section);
+            sections.add(section);
+        }
+        return section;
+    }
+
+    /**
+     * Starts timing command execute() calls. Should be called once, after the button bindings are made.
+     */
+    public void install() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+
+        // The scheduler runs commands right after polling the button loop, so a binding added after
+        // every other binding marks the start of the first execute().
+        scheduler.getDefaultButtonLoop().bind(() -> commandMarkNanos = System.nanoTime());
+        scheduler.onCommandExecute(this::onCommandExecute);
+    }
+
+    /**
+     * Called by the scheduler after each command's execute(). The time since the previous mark is that
+     * command's execute(), plus the isFinished() and end() of the command before it.
+     * 
+     * @param command The command that was executed.
+     */
+    private void onCommandExecute(Command command) {
+        long nowNanos = System.nanoTime();
+        section(command.getName()).record(nowNanos - commandMarkNanos);
+        commandMarkNanos = nowNanos;
+    }
+
+    /**
+     * Marks the start of a cycle. Should be called right before CommandScheduler.run().
+     */
+    public void startCycle() {
+        cycle++;
+        cycleStartNanos = System.nanoTime();
+        commandMarkNanos = cycleStartNanos;
+    }
+
+    /**
+     * Marks the end of a cycle. Should be called right after CommandScheduler.run().
+     * 
+     * <p>Logs a breakdown if the cycle was over budget and publishes the statistics when they are due.
+     * 
+     * @return The time of the cycle in seconds.
+     */
+    public double endCycle() {
+        long endNanos = System.nanoTime();
+        long cycleTimeNanos = endNanos - cycleStartNanos;
+        cycleSection.record(cycleTimeNanos);
+
+        if(cycleTimeNanos > budgetNanos) {
+            logOverrun();
+        }
+
+        if(endNanos >= nextPublishNanos) {
+            for(Section section : sections) {
+                section.publish();
+            }
+            nextPublishNanos = endNanos + publishPeriodNanos;
+        }
+
+        return cycleTimeNanos * 1e-9;
+    }
+
+    /**
+     * Writes the time of every section that ran this cycle to the DataLog.
+     */
+    private void logOverrun() {
+        overrunMessage.setLength(0);
+        overrunMessage.append("Loop overrun:");
+        for(Section section : sections) {
+            if(section.lastCycle != cycle) continue;
+
+            overrunMessage
+                .append(' ')
+                .append(section.name)
+                .append('=')
+                .append(Math.round(section.cycleNanos * 1e-4) / 100.0)
+                .append("ms");
+        }
+        DataLogManager.log(overrunMessage.toString());
+    }
+}
@@ -0,0 +1,160 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Fuses swerve odometry with delayed vision measurements without replaying odometry.
+ * 
+ * <p>SwerveDrivePoseEstimator replays every odometry update since a vision frame was captured each time the
+ * frame is added, which adds up with several cameras at 30+ fps. This estimator keeps a PoseHistory of
+ * odometry poses instead. A vision measurement captured at time t is compared against the estimate at t,
+ * found by moving the current estimate back by the odometry motion since t. The correction is weighted
+ * with the same gain as SwerveDrivePoseEstimator, and the motion since t is then applied again. Adding a
+ * measurement costs one O(log n) history lookup.
+ * 
+ * <p>Not thread-safe. Callers on more than one thread must hold a lock.
+ */
+public class LatencyCompensatedPoseEstimator {
+
+    private final SwerveDriveOdometry odometry;
+
+    private final PoseHistory odometryHistory;
+
+    // The variance of the odometry in x, y and heading.
+    private final double[] stateVariances = new double[3];
+
+    private final double[] samplePose = new double[3];
+
+    private Pose2d odometryPose;
+    private Pose2d estimatedPose;
+
+    /**
+     * Constructs a new LatencyCompensatedPoseEstimator.
+     * 
+     * @param kinematics The kinematics of the drive base.
+     * @param gyroAngle The current gyro angle.
+     * @param modulePositions The current module positions.
+     * @param initialPose The starting pose.
+     * @param xyStdDevMeters The standard deviation of the odometry x and y in meters.
+     * @param thetaStdDevRad The standard deviation of the odometry heading in radians.
+     * @param historyCapacity The number of odometry poses kept. Measurements older than the oldest are ignored.
+     */
+    public LatencyCompensatedPoseEstimator(
+        SwerveDriveKinematics kinematics,
+        Rotation2d gyroAngle,
+        SwerveModulePosition[] modulePositions,
+        Pose2d initialPose,
+        double xyStdDevMeters,
+        double thetaStdDevRad,
+        int historyCapacity
+    ) {
+        odometry = new SwerveDriveOdometry(kinematics, gyroAngle, modulePositions, initialPose);
+        odometryHistory = new PoseHistory(historyCapacity);
+
+        stateVariances[0] = xyStdDevMeters * xyStdDevMeters;
+        stateVariances[1] = xyStdDevMeters * xyStdDevMeters;
+        stateVariances[2] = thetaStdDevRad * thetaStdDevRad;
+
+        odometryPose = initialPose;
+        estimatedPose = initialPose;
+    }
+
+    /**
+     * Updates the estimate with new odometry.
+     * 
+     * @param timestampSec The time of the sample in seconds.
+     * @param gyroAngle The gyro angle of the sample.
+     * @param modulePositions The module positions of the sample.
+     * 
+     * @return The new estimate.
+     */
+    public Pose2d updateWithTime(double timestampSec, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+        Pose2d newOdometryPose = odometry.update(gyroAngle, modulePositions);
+
+        Twist2d twist = odometryPose.log(newOdometryPose);
+        estimatedPose = estimatedPose.exp(twist);
+        odometryPose = newOdometryPose;
+
+        odometryHistory.add(timestampSec, odometryPose.getX(), odometryPose.getY(), odometryPose.getRotation().getRadians());
+
+        return estimatedPose;
+    }
+
+    /**
+     * Adds a vision measurement.
+     * 
+     * @param visionPose The robot pose measured by vision.
+     * @param timestampSec The time the measurement was captured in seconds.
+     * @param xyStdDevMeters The standard deviation of the measurement x and y in meters.
+     * @param thetaStdDevRad The standard deviation of the measurement heading in radians.
+     * 
+     * @return False if the measurement is older than the history and was ignored.
+     */
+    public boolean addVisionMeasurement(Pose2d visionPose, double timestampSec, double xyStdDevMeters, double thetaStdDevRad) {
+        if(!odometryHistory.sample(timestampSec, samplePose)) return false;
+
+        Pose2d sampleOdometryPose = new Pose2d(samplePose[0], samplePose[1], new Rotation2d(samplePose[2]));
+
+        // The estimate when the measurement was captured.
+        Pose2d sampleEstimatedPose = estimatedPose.plus(new Transform2d(odometryPose, sampleOdometryPose));
+
+        Transform2d error = new Transform2d(sampleEstimatedPose, visionPose);
+        Transform2d correction = new Transform2d(
+            getGain(0, xyStdDevMeters) * error.getX(),
+            getGain(1, xyStdDevMeters) * error.getY(),
+            new Rotation2d(getGain(2, thetaStdDevRad) * error.getRotation().getRadians()));
+
+        // Applies the correction at the time of the measurement, then the odometry motion since then.
+        estimatedPose = sampleEstimatedPose.plus(correction).plus(new Transform2d(sampleOdometryPose, odometryPose));
+        return true;
+    }
+
+    /**
+     * Returns the Kalman gain of a measurement, as calculated by SwerveDrivePoseEstimator.
+     */
+    private double getGain(int axis, double measurementStdDev) {
+        double q = stateVariances[axis];
+        if(q == 0.0) return 0.0;
+
+        double r = measurementStdDev * measurementStdDev;
+        return q / (q + Math.sqrt(q * r));
+    }
+
+    /**
+     * Resets the estimate and clears the history.
+     * 
+     * @param gyroAngle The current gyro angle.
+     * @param modulePositions The current module positions.
+     * @param pose The pose to reset to.
+     */
+    public void resetPosition(Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d pose) {
+        odometry.resetPosition(gyroAngle, modulePositions, pose);
+        odometryPose = pose;
+        estimatedPose = pose;
+        odometryHistory.clear();
+    }
+
+    public Pose2d getEstimatedPosition() {
+        return estimatedPose;
+    }
+
+    /**
+     * Returns the estimate at a past time, from the odometry history and the current estimate.
+     * 
+     * @param timestampSec The time in seconds.
+     * 
+     * @return The estimated pose, or null if the time is older than the history.
+     */
+    public Pose2d getEstimatedPositionAt(double timestampSec) {
+        if(!odometryHistory.sample(timestampSec, samplePose)) return null;
+
+        Pose2d sampleOdometryPose = new Pose2d(samplePose[0], samplePose[1], new Rotation2d(samplePose[2]));
+        return estimatedPose.plus(new Transform2d(odometryPose, sampleOdometryPose));
+    }
+}
@@ -0,0 +1,142 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * A reusable set of module speeds and angles for a swerve drive.
+ * 
+ * <p>ModuleStateBuffer does the same math as SwerveDriveKinematics.toSwerveModuleStates(),
+ * ChassisSpeeds.discretize() and SwerveDriveKinematics.desaturateWheelSpeeds(), but writes the
+ * results into preallocated primitive arrays. This keeps the drive loop from creating any
+ * ChassisSpeeds, SwerveModuleState or Rotation2d objects.
+ */
+public class ModuleStateBuffer {
+
+    private final double[] moduleXMeters;
+    private final double[] moduleYMeters;
+
+    private final double[] speedsMetersPerSec;
+    private final double[] anglesRad;
+
+    /**
+     * Constructs a new ModuleStateBuffer.
+     * 
+     * @param moduleLocations The locations of the modules relative to the center of the robot,
+     * in the same order used for the kinematics.
+     */
+    public ModuleStateBuffer(Translation2d... moduleLocations) {
+        moduleXMeters = new double[moduleLocations.length];
+        moduleYMeters = new double[moduleLocations.length];
+
+        speedsMetersPerSec = new double[moduleLocations.length];
+        anglesRad = new double[moduleLocations.length];
+
+        for(int i = 0; i < moduleLocations.length; i++) {
+            moduleXMeters[i] = moduleLocations[i].getX();
+            moduleYMeters[i] = moduleLocations[i].getY();
+        }
+    }
+
+    public int getModuleCount() {
+        return speedsMetersPerSec.length;
+    }
+
+    public double getSpeedMetersPerSec(int index) {
+        return speedsMetersPerSec[index];
+    }
+
+    public double getAngleRad(int index) {
+        return anglesRad[index];
+    }
+
+    /**
+     * Sets the state of a single module.
+     * 
+     * @param index The index of the module.
+     * @param speedMetersPerSec The speed of the module in meters per second.
+     * @param angleRad The angle of the module in radians.
+     */
+    public void set(int index, double speedMetersPerSec, double angleRad) {
+        speedsMetersPerSec[index] = speedMetersPerSec;
+        anglesRad[index] = angleRad;
+    }
+
+    /**
+     * Converts robot-relative chassis speeds into module states.
+     * 
+     * <p>If all speeds are zero, the module speeds are set to zero and the previous angles are kept
+     * so the modules do not snap back to forward.
+     * 
+     * @param vxMetersPerSec The forward velocity of the robot in meters per second.
+     * @param vyMetersPerSec The leftward velocity of the robot in meters per second.
+     * @param omegaRadPerSec The counterclockwise angular velocity of the robot in radians per second.
+     */
+    public void setChassisSpeeds(double vxMetersPerSec, double vyMetersPerSec, double omegaRadPerSec) {
+        if(vxMetersPerSec == 0.0 && vyMetersPerSec == 0.0 && omegaRadPerSec == 0.0) {
+            for(int i = 0; i < speedsMetersPerSec.length; i++) {
+                speedsMetersPerSec[i] = 0.0;
+            }
+            return;
+        }
+
+        for(int i = 0; i < speedsMetersPerSec.length; i++) {
+            double moduleVx = vxMetersPerSec - omegaRadPerSec * moduleYMeters[i];
+            double moduleVy = vyMetersPerSec + omegaRadPerSec * moduleXMeters[i];
+
+            speedsMetersPerSec[i] = Math.hypot(moduleVx, moduleVy);
+            anglesRad[i] = Math.atan2(moduleVy, moduleVx);
+        }
+    }
+
+    /**
+     * Discretizes robot-relative chassis speeds over a timestep, then converts them into module states.
+     * 
+     * <p>This is equivalent to ChassisSpeeds.discretize(), which reduces skew when translating and rotating at once.
+     * 
+     * @param vxMetersPerSec The forward velocity of the robot in meters per second.
+     * @param vyMetersPerSec The leftward velocity of the robot in meters per second.
+     * @param omegaRadPerSec The counterclockwise angular velocity of the robot in radians per second.
+     * @param dtSec The duration of the timestep the speeds are applied for, in seconds.
+     */
+    public void setChassisSpeeds(double vxMetersPerSec, double vyMetersPerSec, double omegaRadPerSec, double dtSec) {
+        double dx = vxMetersPerSec * dtSec;
+        double dy = vyMetersPerSec * dtSec;
+        double dtheta = omegaRadPerSec * dtSec;
+
+        // Log map of the pose delta (dx, dy, dtheta), as in Pose2d.log().
+        double halfDtheta = dtheta / 2.0;
+        double cosMinusOne = Math.cos(dtheta) - 1.0;
+
+        double halfThetaByTanOfHalfDtheta;
+        if(Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        }
+        else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+
+        double twistX = dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta;
+        double twistY = -dx * halfDtheta + dy * halfThetaByTanOfHalfDtheta;
+
+        setChassisSpeeds(twistX / dtSec, twistY / dtSec, dtheta / dtSec);
+    }
+
+    /**
+     * Scales all module speeds down evenly so that none exceed the maximum speed.
+     * 
+     * @param maxSpeedMetersPerSec The maximum speed a module can be driven at in meters per second.
+     */
+    public void desaturate(double maxSpeedMetersPerSec) {
+        double realMaxSpeed = 0.0;
+        for(double speed : speedsMetersPerSec) {
+            realMaxSpeed = Math.max(realMaxSpeed, Math.abs(speed));
+        }
+
+        if(realMaxSpeed > maxSpeedMetersPerSec) {
+            double scale = maxSpeedMetersPerSec / realMaxSpeed;
+            for(int i = 0; i < speedsMetersPerSec.length; i++) {
+                speedsMetersPerSec[i] *= scale;
+            }
+        }
+    }
+}
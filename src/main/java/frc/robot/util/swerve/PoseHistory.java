@@ -0,0 +1,135 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * A fixed-size history of timestamped poses stored in primitive arrays.
+ * 
+ * <p>Poses are added in time order. Once the history is full, each new pose replaces the oldest one.
+ * sample() finds the poses on either side of a timestamp with a binary search and interpolates between
+ * them, so looking up a pose takes O(log n) and creates no objects.
+ */
+public class PoseHistory {
+
+    private final double[] timestampsSec;
+    private final double[] xMeters;
+    private final double[] yMeters;
+    private final double[] thetaRad;
+
+    // Index of the oldest pose and the number of poses stored.
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * Constructs a new PoseHistory.
+     * 
+     * @param capacity The number of poses kept.
+     */
+    public PoseHistory(int capacity) {
+        timestampsSec = new double[capacity];
+        xMeters = new double[capacity];
+        yMeters = new double[capacity];
+        thetaRad = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every pose.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Adds a pose. A pose that is not newer than the newest pose replaces it.
+     * 
+     * @param timestampSec The time of the pose in seconds.
+     * @param x The x of the pose in meters.
+     * @param y The y of the pose in meters.
+     * @param theta The heading of the pose in radians.
+     */
+    public void add(double timestampSec, double x, double y, double theta) {
+        int index;
+        if(size > 0 && timestampSec <= timestampsSec[physicalIndex(size - 1)]) {
+            index = physicalIndex(size - 1);
+        }
+        else if(size < timestampsSec.length) {
+            index = physicalIndex(size);
+            size++;
+        }
+        else {
+            index = start;
+            start = (start + 1) % timestampsSec.length;
+        }
+
+        timestampsSec[index] = timestampSec;
+        xMeters[index] = x;
+        yMeters[index] = y;
+        thetaRad[index] = theta;
+    }
+
+    /**
+     * Returns the time of the oldest pose.
+     * 
+     * @return The time in seconds, or NaN if the history is empty.
+     */
+    public double getOldestTimestampSec() {
+        return size == 0 ? Double.NaN : timestampsSec[start];
+    }
+
+    /**
+     * Returns the time of the newest pose.
+     * 
+     * @return The time in seconds, or NaN if the history is empty.
+     */
+    public double getNewestTimestampSec() {
+        return size == 0 ? Double.NaN : timestampsSec[physicalIndex(size - 1)];
+    }
+
+    /**
+     * Finds the pose at a timestamp, interpolating between the poses on either side of it.
+     * Timestamps newer than the newest pose return the newest pose.
+     * 
+     * @param timestampSec The time to look up in seconds.
+     * @param pose Receives the x and y in meters and the heading in radians, in that order.
+     * 
+     * @return False if the history is empty or the timestamp is older than the oldest pose.
+     */
+    public boolean sample(double timestampSec, double[] pose) {
+        if(size == 0 || timestampSec < timestampsSec[start]) return false;
+
+        int newest = physicalIndex(size - 1);
+        if(timestampSec >= timestampsSec[newest]) {
+            pose[0] = xMeters[newest];
+            pose[1] = yMeters[newest];
+            pose[2] = thetaRad[newest];
+            return true;
+        }
+
+        // Finds the last pose at or before the timestamp. The loop keeps low <= timestamp < high.
+        int low = 0;
+        int high = size - 1;
+        while(high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if(timestampsSec[physicalIndex(mid)] <= timestampSec) low = mid;
+            else high = mid;
+        }
+
+        int before = physicalIndex(low);
+        int after = physicalIndex(high);
+        double t = (timestampSec - timestampsSec[before]) / (timestampsSec[after] - timestampsSec[before]);
+
+        pose[0] = MathUtil.interpolate(xMeters[before], xMeters[after], t);
+        pose[1] = MathUtil.interpolate(yMeters[before], yMeters[after], t);
+        pose[2] = thetaRad[before] + MathUtil.angleModulus(thetaRad[after] - thetaRad[before]) * t;
+        return true;
+    }
+
+    private int physicalIndex(int logicalIndex) {
+        return (start + logicalIndex) % timestampsSec.length;
+    }
+}
@@ -0,0 +1,97 @@
+package frc.robot.util.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+
+/**
+ * Publishes values to typed NetworkTables topics, each at its own rate.
+ * 
+ * <p>Publishers are created once when a topic is added, so publishing a value is a non-blocking
+ * set() on an existing handle instead of a string lookup like SmartDashboard.putNumber().
+ */
+public class TelemetryPublisher {
+
+    private static class Topic {
+        private final Runnable publish;
+        private final double periodSec;
+        private double nextPublishSec = 0.0;
+
+        private Topic(Runnable publish, double periodSec) {
+            this.publish = publish;
+            this.periodSec = periodSec;
+        }
+    }
+
+    private final NetworkTable table;
+
+    private final List<Topic> topics = new ArrayList<>();
+
+    /**
+     * Constructs a new TelemetryPublisher.
+     * 
+     * @param table The NetworkTable to publish topics under.
+     */
+    public TelemetryPublisher(NetworkTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Adds a double topic.
+     * 
+     * @param name The name of the topic.
+     * @param supplier Supplies the value to publish.
+     * @param periodSec How often the topic should be published, in seconds. Zero publishes every loop.
+     */
+    public void addDouble(String name, DoubleSupplier supplier, double periodSec) {
+        DoublePublisher publisher = table.getDoubleTopic(name).publish();
+        topics.add(new Topic(() -> publisher.set(supplier.getAsDouble()), periodSec));
+    }
+
+    /**
+     * Adds a struct topic.
+     * 
+     * @param name The name of the topic.
+     * @param struct The struct used to serialize the value.
+     * @param supplier Supplies the value to publish.
+     * @param periodSec How often the topic should be published, in seconds. Zero publishes every loop.
+     */
+    public <T> void addStruct(String name, Struct<T> struct, Supplier<T> supplier, double periodSec) {
+        StructPublisher<T> publisher = table.getStructTopic(name, struct).publish();
+        topics.add(new Topic(() -> publisher.set(supplier.get()), periodSec));
+    }
+
+    /**
+     * Adds a struct array topic.
+     * 
+     * @param name The name of the topic.
+     * @param struct The struct used to serialize each element.
+     * @param supplier Supplies the array to publish.
+     * @param periodSec How often the topic should be published, in seconds. Zero publishes every loop.
+     */
+    public <T> void addStructArray(String name, Struct<T> struct, Supplier<T[]> supplier, double periodSec) {
+        StructArrayPublisher<T> publisher = table.getStructArrayTopic(name, struct).publish();
+        topics.add(new Topic(() -> publisher.set(supplier.get()), periodSec));
+    }
+
+    /**
+     * Publishes every topic that is due.
+     * 
+     * @param timestampSec The current time, in seconds.
+     */
+    public void update(double timestampSec) {
+        for(Topic topic : topics) {
+            if(timestampSec >= topic.nextPublishSec) {
+                topic.publish.run();
+                topic.nextPublishSec = timestampSec + topic.periodSec;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package frc.robot.commands.drivetrain;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.AutoConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.subsystems.SwerveSys;
+import frc.robot.util.limelight.LimelightSim;
+
+class PointCmdTest {
+
+    private static final double loopPeriodSec = 0.02;
+
+    // Long enough for the wheels to stop and the LimelightSim to fill its latency history.
+    private static final int settleCycles = 50;
+
+    private static final int maxCycles = 250;
+
+    // A blue reef tag, low enough to stay in view of the front camera.
+    private static final int tagId = 17;
+
+    private static final double tagDistanceMeters = 3.0;
+
+    // How far the robot starts turned from the tag. Within the field of view, so both commands start with a target.
+    private static final Rotation2d startOffset = Rotation2d.fromDegrees(-20.0);
+
+    private static SwerveSys swerveSys;
+
+    private static LimelightSim limelightSim;
+
+    // The robot in front of the tag, facing it.
+    private static Pose2d aimedPose;
+
+    @BeforeAll
+    static void startSimulation() {
+        assertTrue(HAL.initialize(500, 0));
+
+        // The clock only moves when stepped, so every run sees the same frames.
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+
+        Pose2d tagPose = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField).getTagPose(tagId).get().toPose2d();
+        aimedPose = tagPose.transformBy(new Transform2d(tagDistanceMeters, 0.0, Rotation2d.k180deg));
+
+        swerveSys = new SwerveSys();
+
+        // Without noise, so both commands are compared on the same frames.
+        limelightSim = new LimelightSim(
+            VisionConstants.frontLimelightName,
+            VisionConstants.simRobotToCamera,
+            swerveSys::getSimulatedPose,
+            VisionConstants.simFrameRateHz,
+            VisionConstants.simPipelineLatencyMs,
+            VisionConstants.simCaptureLatencyMs,
+            0.0);
+    }
+
+    @AfterAll
+    static void stopSimulation() {
+        CommandScheduler.getInstance().cancelAll();
+        limelightSim.close();
+        SimHooks.resumeTiming();
+    }
+
+    /**
+     * Runs one robot loop. The default ArcadeDriveCmd is not bound here, so the zero driver input is sent directly.
+     */
+    private static void step() {
+        SimHooks.stepTiming(loopPeriodSec);
+        DriverStation.refreshData();
+        CommandScheduler.getInstance().run();
+        swerveSys.drive(0.0, 0.0, 0.0, true);
+    }
+
+    /**
+     * Returns the angle in degrees between the heading of the simulated robot and the direction of the tag.
+     */
+    private static double getAimErrorDeg() {
+        return Math.abs(Math.toDegrees(MathUtil.angleModulus(
+            aimedPose.getRotation().getRadians() - swerveSys.getSimulatedPose().getRotation().getRadians())));
+    }
+
+    /**
+     * Places the robot turned away from the tag, runs the command and counts the cycles until the robot is aimed.
+     *
+     * @return The number of cycles, or maxCycles if the robot was never aimed.
+     */
+    private static int countCyclesToAim(Command command) {
+        CommandScheduler.getInstance().cancelAll();
+
+        Pose2d startPose = new Pose2d(aimedPose.getTranslation(), aimedPose.getRotation().plus(startOffset));
+
+        // Places the robot, then places it again once it has come to rest from the last run.
+        swerveSys.setPose(startPose);
+        for(int i = 0; i < settleCycles; i++) {
+            step();
+        }
+        swerveSys.setPose(startPose);
+        for(int i = 0; i < settleCycles; i++) {
+            step();
+        }
+
+        command.schedule();
+
+        for(int cycle = 1; cycle <= maxCycles; cycle++) {
+            step();
+            if(getAimErrorDeg() <= AutoConstants.autoAimToleranceDeg) {
+                command.cancel();
+                return cycle;
+            }
+        }
+
+        command.cancel();
+        return maxCycles;
+    }
+
+    @Test
+    void pointReachesAimToleranceInFewerCyclesThanTurnToHeading() {
+        int pointCycles = countCyclesToAim(new PointCmd(swerveSys));
+        int turnToHeadingCycles = countCyclesToAim(new TurnToHeadingCmd(aimedPose.getRotation(), false, swerveSys));
+
+        assertTrue(pointCycles < maxCycles, "PointCmd never reached the aim tolerance");
+        assertTrue(
+            pointCycles < turnToHeadingCycles,
+            "PointCmd took " + pointCycles + " cycles and TurnToHeadingCmd took " + turnToHeadingCycles);
+    }
+}
@@ -0,0 +1,98 @@
+package frc.robot.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+class LogReplayTest {
+
+    // The gyro does not read zero at boot. The first reset on the robot treats this yaw as heading zero.
+    private static final Rotation2d bootYaw = Rotation2d.fromDegrees(90.0);
+
+    private static final double dtSec = 0.02;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Returns the positions of four modules pointed straight ahead that have each driven the same distance.
+     */
+    private static SwerveModulePosition[] straightModulePositions(double distanceMeters) {
+        return new SwerveModulePosition[] {
+            new SwerveModulePosition(distanceMeters, new Rotation2d()),
+            new SwerveModulePosition(distanceMeters, new Rotation2d()),
+            new SwerveModulePosition(distanceMeters, new Rotation2d()),
+            new SwerveModulePosition(distanceMeters, new Rotation2d())
+        };
+    }
+
+    /**
+     * Logs the odometry samples of driving straight ahead, as SwerveSys records them.
+     *
+     * @return The time of the last sample in seconds.
+     */
+    private static double logStraightDrive(
+        DoubleArrayLogEntry odometryLog, double startSec, double startDistanceMeters, double distanceMeters, int sampleCount
+    ) {
+        double[] sample = new double[LogReplay.odometrySampleLength];
+        double timestampSec = startSec;
+        for(int i = 1; i <= sampleCount; i++) {
+            timestampSec = startSec + i * dtSec;
+            LogReplay.packOdometrySample(
+                timestampSec, bootYaw, straightModulePositions(startDistanceMeters + distanceMeters * i / sampleCount), sample);
+            odometryLog.append(sample, (long)(timestampSec * 1e6));
+        }
+        return timestampSec;
+    }
+
+    @Test
+    void replayResetsFromTheLoggedSensorValues() throws IOException {
+        String logPath = tempDir.resolve("match.wpilog").toString();
+
+        DataLogWriter log = new DataLogWriter(logPath);
+        DoubleArrayLogEntry odometryLog = new DoubleArrayLogEntry(log, LogReplay.odometryEntry);
+        DoubleArrayLogEntry resetLog = new DoubleArrayLogEntry(log, LogReplay.resetEntry);
+
+        // The reset SwerveSys makes when it is constructed, before the first odometry sample.
+        resetLog.append(LogReplay.packPoseReset(0.5, bootYaw, straightModulePositions(0.0), new Pose2d()), 500_000);
+
+        // Drives a meter straight ahead, which is along the field x axis since the heading was reset to zero.
+        double timestampSec = logStraightDrive(odometryLog, 1.0, 0.0, 1.0, 50);
+
+        // A reset during the match, such as the starting pose of an auto, then another meter ahead.
+        timestampSec += dtSec;
+        resetLog.append(
+            LogReplay.packPoseReset(timestampSec, bootYaw, straightModulePositions(1.0), new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(180.0))),
+            (long)(timestampSec * 1e6));
+        logStraightDrive(odometryLog, timestampSec, 1.0, 1.0, 50);
+
+        log.close();
+
+        Pose2d finalPose = LogReplay.replay(logPath, new PrintWriter(new StringWriter()));
+
+        // Without the boot yaw of the first reset, the replayed heading would be off by 90 degrees.
+        assertEquals(2.0, finalPose.getX(), 1e-6);
+        assertEquals(2.0, finalPose.getY(), 1e-6);
+        assertEquals(-1.0, finalPose.getRotation().getCos(), 1e-6);
+    }
+}
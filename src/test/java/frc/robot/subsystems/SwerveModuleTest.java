@@ -0,0 +1,44 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+class SwerveModuleTest {
+
+    @Test
+    void adjustedAngleStaysWithinHalfATurnOfContinuousEncoder() {
+        for(double currentAngleRad = -8.0 * Math.PI; currentAngleRad <= 8.0 * Math.PI; currentAngleRad += 0.1) {
+            for(double targetAngleRad = -Math.PI; targetAngleRad <= Math.PI; targetAngleRad += 0.1) {
+                double setpointRad = SwerveModule.calculateAdjustedAngle(targetAngleRad, currentAngleRad);
+
+                // The setpoint points the module the same way as the target, without turning it more than half a turn.
+                assertEquals(0.0, MathUtil.angleModulus(setpointRad - targetAngleRad), 1e-9);
+                assertTrue(Math.abs(setpointRad - currentAngleRad) <= Math.PI + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void optimizeMatchesWpilib() {
+        for(double currentAngleRad = -4.0 * Math.PI; currentAngleRad <= 4.0 * Math.PI; currentAngleRad += 0.1) {
+            for(double targetAngleRad = -Math.PI; targetAngleRad <= Math.PI; targetAngleRad += 0.1) {
+                Rotation2d currentAngle = new Rotation2d(currentAngleRad);
+                SwerveModuleState state = new SwerveModuleState(1.5, new Rotation2d(targetAngleRad));
+                state.optimize(currentAngle);
+                state.cosineScale(currentAngle);
+
+                double optimizedAngleRad = SwerveModule.optimizeAngle(targetAngleRad, currentAngleRad);
+                double optimizedSpeedMetersPerSec = SwerveModule.optimizeSpeed(1.5, targetAngleRad, currentAngleRad);
+
+                assertEquals(0.0, MathUtil.angleModulus(state.angle.getRadians() - optimizedAngleRad), 1e-9);
+                assertEquals(state.speedMetersPerSecond, optimizedSpeedMetersPerSec, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.subsystems.io.GyroIOReplay;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.subsystems.io.SwerveModuleIOReplay;
+
+class SwerveSysTest {
+
+    private static final int warmUpRounds = 20;
+
+    private static final int cyclesPerRound = 10_000;
+
+    // Reused for every setChassisSpeeds() call, as PathPlanner's controller output would be.
+    private final ChassisSpeeds chassisSpeeds = new ChassisSpeeds();
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    /**
+     * Creates a SwerveSys on replay IO, as LogReplay does, so it runs without hardware.
+     */
+    private static SwerveSys createSwerveSys() {
+        return new SwerveSys(
+            new GyroIOReplay(),
+            new SwerveModuleIO[] {
+                new SwerveModuleIOReplay(),
+                new SwerveModuleIOReplay(),
+                new SwerveModuleIOReplay(),
+                new SwerveModuleIOReplay()
+            },
+            true);
+    }
+
+    /**
+     * Runs the calls the drive commands and PathPlanner make each cycle, with inputs that change every cycle.
+     */
+    private void runDriveCycle(SwerveSys swerveSys, int cycle) {
+        double vx = Math.sin(cycle * 0.01) * 5.0;
+        double vy = Math.cos(cycle * 0.013) * 5.0;
+        double omega = Math.sin(cycle * 0.007) * 8.0;
+
+        if(cycle % 100 == 0) {
+            swerveSys.lock();
+            swerveSys.drive(0.0, 0.0, 0.0, true);
+        }
+        else if(cycle % 3 == 0) {
+            chassisSpeeds.vxMetersPerSecond = vx;
+            chassisSpeeds.vyMetersPerSecond = vy;
+            chassisSpeeds.omegaRadiansPerSecond = omega;
+            swerveSys.setChassisSpeeds(chassisSpeeds);
+        }
+        else {
+            swerveSys.drive(vx, vy, omega, cycle % 3 == 1);
+        }
+    }
+
+    /**
+     * Returns the bytes the current thread allocates over a number of drive cycles.
+     */
+    private long measureAllocatedBytes(com.sun.management.ThreadMXBean threadBean, SwerveSys swerveSys, int cycles) {
+        long allocatedBytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+        for(int cycle = 0; cycle < cycles; cycle++) {
+            runDriveCycle(swerveSys, cycle);
+        }
+        return threadBean.getCurrentThreadAllocatedBytes() - allocatedBytesBefore;
+    }
+
+    /**
+     * Warms up the drive path, then returns the bytes allocated over one more round of drive cycles.
+     */
+    private long measureWarmAllocatedBytes(SwerveSys swerveSys) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+        // Warms up through the same method as the measurement, so the measured cycles run compiled code and any lazy
+        // class loading or first-call allocation by the bean is already done.
+        for(int i = 0; i < warmUpRounds; i++) {
+            measureAllocatedBytes(threadBean, swerveSys, cyclesPerRound);
+        }
+
+        return measureAllocatedBytes(threadBean, swerveSys, cyclesPerRound);
+    }
+
+    @Test
+    void driveDoesNotAllocate() {
+        assertEquals(0, measureWarmAllocatedBytes(createSwerveSys()), "bytes allocated over " + cyclesPerRound + " drive cycles");
+    }
+
+    @Test
+    void driveWithOmegaOverrideDoesNotAllocate() {
+        SwerveSys swerveSys = createSwerveSys();
+
+        // Set once per target by the aiming commands, so only reading it is part of the drive path.
+        swerveSys.setOmegaOverrideRadPerSec(Optional.of(2.0));
+
+        assertEquals(0, measureWarmAllocatedBytes(swerveSys), "bytes allocated over " + cyclesPerRound + " drive cycles");
+    }
+}
@@ -0,0 +1,192 @@
+package frc.robot.util.limelight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests LimelightHttpClient against a local stub server. The Limelight name picks the handler: "ok" answers at once,
+ * "slow" answers after longer than the read timeout, "blocked" waits until the test releases it, and any other name
+ * gets a 404.
+ */
+class LimelightHttpClientTest {
+
+    private static final int connectTimeoutMs = 250;
+    private static final int readTimeoutMs = 200;
+
+    private static final long futureTimeoutSec = 5;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    private String urlFormat;
+
+    private final AtomicInteger okHitCount = new AtomicInteger();
+    private final AtomicInteger blockedHitCount = new AtomicInteger();
+
+    private final CountDownLatch releaseBlocked = new CountDownLatch(1);
+    private final CountDownLatch blockedStarted = new CountDownLatch(1);
+
+    private static void respond(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+
+        server.createContext("/ok", exchange -> {
+            okHitCount.incrementAndGet();
+            respond(exchange, 200);
+        });
+
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(readTimeoutMs * 10L);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+
+        server.createContext("/blocked", exchange -> {
+            blockedHitCount.incrementAndGet();
+            blockedStarted.countDown();
+            try {
+                releaseBlocked.await(futureTimeoutSec, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+
+        // Handlers block, so each exchange gets its own thread.
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        urlFormat = "http://127.0.0.1:" + server.getAddress().getPort() + "/%s/%s";
+    }
+
+    @AfterEach
+    void stopServer() {
+        releaseBlocked.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private LimelightHttpClient createClient(int threadCount, int queueCapacity, int readTimeoutMs) {
+        return new LimelightHttpClient(threadCount, queueCapacity, connectTimeoutMs, readTimeoutMs, urlFormat);
+    }
+
+    @Test
+    void requestTimesOutAgainstSlowServer() throws Exception {
+        LimelightHttpClient client = createClient(1, 4, readTimeoutMs);
+
+        long startNanos = System.nanoTime();
+        boolean succeeded = client.takeSnapshot("slow", "").get(futureTimeoutSec, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertFalse(succeeded);
+        assertTrue(elapsedMs < readTimeoutMs * 10L, "request took " + elapsedMs + " ms, longer than the slow handler");
+        assertEquals(1, client.getFailedCount());
+        assertEquals(0, client.getSucceededCount());
+    }
+
+    @Test
+    void identicalRequestsInFlightHitServerOnce() throws Exception {
+        LimelightHttpClient client = createClient(1, 4, (int)TimeUnit.SECONDS.toMillis(futureTimeoutSec));
+
+        CompletableFuture<Boolean> first = client.takeSnapshot("blocked", "burst");
+        assertTrue(blockedStarted.await(futureTimeoutSec, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> second = client.takeSnapshot("blocked", "burst");
+
+        assertSame(first, second);
+
+        releaseBlocked.countDown();
+        assertTrue(first.get(futureTimeoutSec, TimeUnit.SECONDS));
+
+        assertEquals(1, blockedHitCount.get());
+        assertEquals(2, client.getRequestCount());
+        assertEquals(1, client.getDeduplicatedCount());
+
+        // Once the first request is done, the same request is sent again.
+        assertTrue(client.takeSnapshot("blocked", "burst").get(futureTimeoutSec, TimeUnit.SECONDS));
+        assertEquals(2, blockedHitCount.get());
+    }
+
+    @Test
+    void requestsBeyondQueueCapacityAreRejected() throws Exception {
+        LimelightHttpClient client = createClient(1, 1, (int)TimeUnit.SECONDS.toMillis(futureTimeoutSec));
+
+        // The first request takes the only thread, the second waits in the queue and the third does not fit.
+        CompletableFuture<Boolean> running = client.takeSnapshot("blocked", "a");
+        CompletableFuture<Boolean> queued = client.takeSnapshot("blocked", "b");
+        CompletableFuture<Boolean> rejected = client.takeSnapshot("blocked", "c");
+
+        assertTrue(rejected.isDone());
+        assertFalse(rejected.get());
+        assertEquals(1, client.getRejectedCount());
+
+        releaseBlocked.countDown();
+        assertTrue(running.get(futureTimeoutSec, TimeUnit.SECONDS));
+        assertTrue(queued.get(futureTimeoutSec, TimeUnit.SECONDS));
+        assertEquals(2, blockedHitCount.get());
+    }
+
+    @Test
+    void metricsCountEachOutcome() throws Exception {
+        LimelightHttpClient client = createClient(2, 4, readTimeoutMs);
+
+        assertTrue(client.takeSnapshot("ok", "a").get(futureTimeoutSec, TimeUnit.SECONDS));
+        assertTrue(client.takeSnapshot("ok", "b").get(futureTimeoutSec, TimeUnit.SECONDS));
+        assertFalse(client.takeSnapshot("missing", "").get(futureTimeoutSec, TimeUnit.SECONDS));
+
+        assertEquals(3, client.getRequestCount());
+        assertEquals(2, client.getSucceededCount());
+        assertEquals(1, client.getFailedCount());
+        assertEquals(0, client.getDeduplicatedCount());
+        assertEquals(0, client.getRejectedCount());
+        assertEquals(0, client.getQueuedCount());
+        assertEquals(2, okHitCount.get());
+        assertTrue(client.getAverageLatencyMs() > 0.0);
+    }
+
+    @Test
+    void requestThatThrowsIsNotLeftInFlight() throws Exception {
+        LimelightHttpClient client = createClient(1, 4, readTimeoutMs);
+
+        // A line break is illegal in a header value, so setting the snapname header throws IllegalArgumentException.
+        CompletableFuture<Boolean> first = client.takeSnapshot("ok", "bad\nname");
+        assertFalse(first.get(futureTimeoutSec, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> second = client.takeSnapshot("ok", "bad\nname");
+        assertNotSame(first, second);
+        assertFalse(second.get(futureTimeoutSec, TimeUnit.SECONDS));
+
+        assertEquals(0, client.getDeduplicatedCount());
+        assertEquals(2, client.getFailedCount());
+        assertEquals(0, okHitCount.get());
+    }
+}
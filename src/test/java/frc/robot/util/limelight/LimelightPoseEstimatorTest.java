@@ -0,0 +1,188 @@
+package frc.robot.util.limelight;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.limelight.LimelightIO.LimelightInputs;
+import frc.robot.util.swerve.LatencyCompensatedPoseEstimator;
+
+class LimelightPoseEstimatorTest {
+
+    private static final Pose2d truePose = new Pose2d(5.0, 4.0, new Rotation2d());
+
+    // The estimate starts off by half a meter, as if the robot was placed a little off its starting pose.
+    private static final Pose2d initialPose = new Pose2d(5.5, 4.0, new Rotation2d());
+
+    private static final double dtSec = 0.02;
+
+    private static final int stepCount = 500;
+
+    private static final SwerveModulePosition[] modulePositions = {
+        new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition(), new SwerveModulePosition()
+    };
+
+    /**
+     * Filters and weights frames before they are added to the pose estimator.
+     */
+    private interface VisionFilter {
+        /**
+         * Adds a frame to the estimator if the filter accepts it.
+         */
+        void addFrame(LatencyCompensatedPoseEstimator estimator, LimelightInputs frame);
+    }
+
+    /**
+     * Returns a frame seen from truePose, with noise and an offset added to the pose.
+     */
+    private static LimelightInputs createFrame(
+        double timestampSec, int tagCount, double avgTagDistMeters, double avgTagAreaPercent, double ambiguity,
+        double xyNoiseMeters, double yOffsetMeters, double thetaOffsetDeg, Random random
+    ) {
+        LimelightInputs frame = new LimelightInputs();
+        frame.timestampSec = timestampSec;
+        frame.botPoseWpiBlue = new double[] {
+            truePose.getX() + random.nextGaussian() * xyNoiseMeters,
+            truePose.getY() + random.nextGaussian() * xyNoiseMeters + yOffsetMeters,
+            0.0, 0.0, 0.0,
+            truePose.getRotation().getDegrees() + random.nextGaussian() + thetaOffsetDeg,
+            // No latency, so each frame is captured at the time of the latest odometry sample.
+            0.0,
+            tagCount, 0.0, avgTagDistMeters, avgTagAreaPercent,
+            // Data of the first tag: id, txnc, tync, ta, distance to camera, distance to robot and ambiguity.
+            7.0, 0.0, 0.0, avgTagAreaPercent, avgTagDistMeters, avgTagDistMeters, ambiguity
+        };
+        return frame;
+    }
+
+    /**
+     * Replays a stationary robot seeing a mix of good, noisy and ambiguous frames through a filter.
+     *
+     * @return The mean translation error of the estimate over the second half of the replay.
+     */
+    private static double replay(VisionFilter filter) {
+        Random random = new Random(1);
+
+        LatencyCompensatedPoseEstimator estimator = new LatencyCompensatedPoseEstimator(
+            DriveConstants.kinematics,
+            new Rotation2d(),
+            modulePositions,
+            initialPose,
+            DriveConstants.odometryXYStdDevMeters,
+            DriveConstants.odometryThetaStdDevRad,
+            (int)Math.ceil(DriveConstants.poseHistorySec / dtSec));
+
+        double errorSumMeters = 0.0;
+        int errorCount = 0;
+        for(int step = 0; step < stepCount; step++) {
+            double timestampSec = step * dtSec;
+            estimator.updateWithTime(timestampSec, new Rotation2d(), modulePositions);
+
+            if(step % 2 == 0) {
+                double frameType = random.nextDouble();
+                LimelightInputs frame;
+                if(frameType < 0.4) {
+                    // Two close tags, which measure the pose well.
+                    frame = createFrame(timestampSec, 2, 2.0, 0.5, 0.05, 0.03, 0.0, 0.0, random);
+                }
+                else if(frameType < 0.8) {
+                    // One far tag, big enough to pass the area threshold but noisy.
+                    frame = createFrame(timestampSec, 1, 3.5, 0.2, 0.1, 0.3, 0.0, 0.0, random);
+                }
+                else {
+                    // One ambiguous tag, which flips to a wrong pose.
+                    frame = createFrame(timestampSec, 1, 2.5, 0.3, 0.6, 0.03, 0.8, 20.0, random);
+                }
+                filter.addFrame(estimator, frame);
+            }
+
+            if(step >= stepCount / 2) {
+                errorSumMeters += estimator.getEstimatedPosition().getTranslation().getDistance(truePose.getTranslation());
+                errorCount++;
+            }
+        }
+        return errorSumMeters / errorCount;
+    }
+
+    @Test
+    void qualityModelHasLowerPoseErrorThanFixedThreshold() {
+        LimelightPoseEstimator limelightPoseEstimator = new LimelightPoseEstimator();
+
+        double qualityModelErrorMeters = replay((estimator, frame) -> {
+            Optional<Pose2d> limelightPose = limelightPoseEstimator.getRobotPose(frame, estimator.getEstimatedPosition());
+            if(limelightPose.isPresent()) {
+                estimator.addVisionMeasurement(
+                    limelightPose.get(),
+                    limelightPoseEstimator.getCaptureTimestamp(frame),
+                    limelightPoseEstimator.getXYStdDevMeters(frame),
+                    limelightPoseEstimator.getThetaStdDevRad(frame));
+            }
+        });
+
+        // The filter used before the quality model: any frame with a big enough average tag area, with fixed std devs.
+        double fixedThresholdErrorMeters = replay((estimator, frame) -> {
+            double[] botPose = frame.botPoseWpiBlue;
+            if(botPose[10] >= VisionConstants.targetAreaPercentThreshold) {
+                estimator.addVisionMeasurement(
+                    new Pose2d(botPose[0], botPose[1], Rotation2d.fromDegrees(botPose[5])),
+                    frame.timestampSec - botPose[6] * 0.001,
+                    VisionConstants.xyStdDevMeters,
+                    VisionConstants.thetaStdDevRad);
+            }
+        });
+
+        assertTrue(
+            qualityModelErrorMeters < fixedThresholdErrorMeters,
+            "quality model error " + qualityModelErrorMeters + " m, fixed threshold error " + fixedThresholdErrorMeters + " m");
+    }
+
+    @Test
+    void closeTagsAreNotTrustedBeyondTheMinimumStdDevs() {
+        LimelightPoseEstimator limelightPoseEstimator = new LimelightPoseEstimator();
+        LimelightInputs frame = createFrame(0.0, 4, 0.3, 2.0, 0.0, 0.0, 0.0, 0.0, new Random(1));
+
+        assertTrue(limelightPoseEstimator.getXYStdDevMeters(frame) >= VisionConstants.minXYStdDevMeters);
+        assertTrue(limelightPoseEstimator.getThetaStdDevRad(frame) >= VisionConstants.minThetaStdDevRad);
+    }
+
+    @Test
+    void consistentSingleTagFramesPullBackAFarOffEstimate() {
+        LimelightPoseEstimator limelightPoseEstimator = new LimelightPoseEstimator();
+        Random random = new Random(1);
+
+        // Twice the jump limit away, as after a bad reset.
+        Pose2d farOffPose = new Pose2d(5.0, 4.0 + 2.0 * VisionConstants.maxSingleTagPoseJumpMeters, new Rotation2d());
+
+        for(int i = 1; i < VisionConstants.singleTagJumpConfirmFrameCount; i++) {
+            LimelightInputs frame = createFrame(i * dtSec, 1, 2.0, 0.5, 0.05, 0.03, 0.0, 0.0, random);
+            assertFalse(limelightPoseEstimator.getRobotPose(frame, farOffPose).isPresent(), "frame " + i + " was accepted");
+        }
+
+        LimelightInputs frame = createFrame(1.0, 1, 2.0, 0.5, 0.05, 0.03, 0.0, 0.0, random);
+        assertTrue(limelightPoseEstimator.getRobotPose(frame, farOffPose).isPresent());
+    }
+
+    @Test
+    void inconsistentSingleTagFramesDoNotConfirmAJump() {
+        LimelightPoseEstimator limelightPoseEstimator = new LimelightPoseEstimator();
+        Random random = new Random(1);
+
+        Pose2d farOffPose = new Pose2d(5.0, 4.0 + 2.0 * VisionConstants.maxSingleTagPoseJumpMeters, new Rotation2d());
+
+        // Alternates between two poses further apart than the spread, as a flipping ambiguous tag would.
+        for(int i = 0; i < 4 * VisionConstants.singleTagJumpConfirmFrameCount; i++) {
+            double yOffsetMeters = i % 2 == 0 ? 0.0 : -2.0 * VisionConstants.maxSingleTagJumpSpreadMeters;
+            LimelightInputs frame = createFrame(i * dtSec, 1, 2.0, 0.5, 0.05, 0.0, yOffsetMeters, 0.0, random);
+            assertFalse(limelightPoseEstimator.getRobotPose(frame, farOffPose).isPresent(), "frame " + i + " was accepted");
+        }
+    }
+}
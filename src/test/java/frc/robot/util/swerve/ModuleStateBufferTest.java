@@ -0,0 +1,46 @@
+package frc.robot.util.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+class ModuleStateBufferTest {
+
+    private static final Translation2d[] moduleLocations = {
+        new Translation2d(0.3, 0.3),
+        new Translation2d(0.3, -0.3),
+        new Translation2d(-0.3, 0.3),
+        new Translation2d(-0.3, -0.3)
+    };
+
+    private static final double maxSpeedMetersPerSec = 4.5;
+
+    private static final double dtSec = 0.02;
+
+    @Test
+    void matchesWpilibKinematics() {
+        ModuleStateBuffer buffer = new ModuleStateBuffer(moduleLocations);
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(moduleLocations);
+
+        double[][] chassisSpeeds = {{1.0, 0.0, 0.0}, {2.0, -1.5, 3.0}, {-4.0, 3.0, -6.0}, {0.0, 0.0, 9.0}};
+        for(double[] speeds : chassisSpeeds) {
+            buffer.setChassisSpeeds(speeds[0], speeds[1], speeds[2], dtSec);
+            buffer.desaturate(maxSpeedMetersPerSec);
+
+            SwerveModuleState[] states = kinematics.toSwerveModuleStates(
+                ChassisSpeeds.discretize(new ChassisSpeeds(speeds[0], speeds[1], speeds[2]), dtSec));
+            SwerveDriveKinematics.desaturateWheelSpeeds(states, maxSpeedMetersPerSec);
+
+            for(int i = 0; i < states.length; i++) {
+                assertEquals(states[i].speedMetersPerSecond, buffer.getSpeedMetersPerSec(i), 1e-9);
+                assertEquals(0.0, MathUtil.angleModulus(states[i].angle.getRadians() - buffer.getAngleRad(i)), 1e-9);
+            }
+        }
+    }
+}